@@ -32,6 +32,7 @@ plugins {
   id("fr.brouillard.oss.gradle.jgitver") version "0.9.1"
   id("com.google.cloud.tools.jib") version "3.2.1"
   id("com.github.ben-manes.versions") version "0.39.0"
+  id("me.champeau.jmh") version "0.6.6"
   id("io.wisetime.versionChecker")
 }
 
@@ -108,7 +109,7 @@ dependencies {
   implementation("commons-codec:commons-codec:1.15")
   implementation("com.fasterxml.jackson.core:jackson-core:${LegebuildConst.JACKSON_FASTER}")
   implementation("com.fasterxml.jackson.core:jackson-databind:${LegebuildConst.JACKSON_FASTER}")
-  implementation("com.vdurmont:emoji-java:5.1.1")
+  implementation("org.roaringbitmap:RoaringBitmap:0.9.44")
   implementation("org.codejargon:fluentjdbc:1.8.6")
   implementation("com.zaxxer:HikariCP:4.0.3")
   implementation("mysql:mysql-connector-java:5.1.44")
@@ -122,7 +123,10 @@ dependencies {
     exclude(group = "org.apache.commons", module = "commons-lang3")
   }
   testImplementation("org.flywaydb:flyway-core:8.5.4")
+  testImplementation("com.vdurmont:emoji-java:5.1.1")
   testRuntimeOnly("com.h2database:h2:2.1.210")
+
+  jmh("com.vdurmont:emoji-java:5.1.1")
 }
 
 configurations.all {
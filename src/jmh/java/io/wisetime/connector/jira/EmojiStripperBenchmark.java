@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2026 Practice Insight Pty Ltd. All Rights Reserved.
+ */
+
+package io.wisetime.connector.jira;
+
+import com.vdurmont.emoji.EmojiParser;
+import io.wisetime.connector.template.TemplateFormatter;
+import io.wisetime.connector.template.TemplateFormatterConfig;
+import io.wisetime.generated.connect.TimeGroup;
+import io.wisetime.generated.connect.TimeRow;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares {@link EmojiStripper} with {@code EmojiParser} on worklog bodies rendered from jira-template.ftl.
+ *
+ * Run with {@code ./gradlew jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@SuppressWarnings("AvoidEscapedUnicodeCharacters")
+public class EmojiStripperBenchmark {
+
+  private static final String[] ACTIVITIES = {
+      "Microsoft Word - Statement of claim.docx",
+      "Outlook - RE: Settlement offer \uD83D\uDC4D",
+      "Google Chrome - WT-1234 Fix login redirect \uD83D\uDE80",
+      "Slack - #litigation-team \uD83D\uDC68\u200D\uD83D\uDCBB",
+      "Adobe Acrobat - Exhibit A.pdf",
+  };
+
+  // Number of time rows in the time group
+  @Param({"5", "50"})
+  private int timeRows;
+
+  private String worklogBody;
+
+  @Setup
+  public void renderWorklogBody() {
+    final TimeGroup timeGroup = new TimeGroup()
+        .description("Reviewed the draft and replied to the client \uD83D\uDE4F")
+        .narrativeType(TimeGroup.NarrativeTypeEnum.AND_TIME_ROW_ACTIVITY_DESCRIPTIONS)
+        .timeRows(IntStream.range(0, timeRows)
+            .mapToObj(i -> new TimeRow()
+                .activity(ACTIVITIES[i % ACTIVITIES.length])
+                .description("Window title " + i))
+            .collect(Collectors.toList()));
+    worklogBody = new TemplateFormatter(
+        TemplateFormatterConfig.builder()
+            .withTemplatePath("classpath:jira-template.ftl")
+            .build()
+    ).format(timeGroup);
+  }
+
+  @Benchmark
+  public String emojiStripper() {
+    return EmojiStripper.removeAllEmojis(worklogBody);
+  }
+
+  @Benchmark
+  public String emojiParser() {
+    return EmojiParser.removeAllEmojis(worklogBody);
+  }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2026 Practice Insight Pty Ltd. All Rights Reserved.
+ */
+
+package io.wisetime.connector.jira;
+
+import com.google.common.base.Preconditions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Sizes tag upsert batches from the observed latency of the WiseTime API (additive increase, multiplicative decrease).
+ *
+ * The batch grows by a fixed step after every call whose latency per tag stays within tolerance of the recent average.
+ * It is halved after a failed call or a call that was much slower per tag than the recent average. The batch size is
+ * always kept between the configured bounds.
+ */
+class AdaptiveBatchSizer {
+
+  private static final Logger log = LoggerFactory.getLogger(AdaptiveBatchSizer.class);
+  // A call slower than this multiple of the average latency per tag is taken as a sign of overload
+  private static final double SLOW_CALL_FACTOR = 1.5;
+  // Weight of the latest call in the moving average latency per tag
+  private static final double LATENCY_SMOOTHING = 0.2;
+  // Number of successful calls needed to grow from the minimum to the maximum batch size
+  private static final int STEPS_TO_MAX = 20;
+
+  private final int minBatchSize;
+  private final int maxBatchSize;
+  private final int increaseStep;
+  private int batchSize;
+  // Zero until the first successful call
+  private double averageNanosPerTag = 0;
+
+  AdaptiveBatchSizer(final int minBatchSize, final int maxBatchSize, final int initialBatchSize) {
+    Preconditions.checkArgument(minBatchSize > 0, "Minimum batch size must be positive");
+    Preconditions.checkArgument(maxBatchSize >= minBatchSize,
+        "Maximum batch size must not be less than the minimum batch size");
+    this.minBatchSize = minBatchSize;
+    this.maxBatchSize = maxBatchSize;
+    this.increaseStep = Math.max(1, (maxBatchSize - minBatchSize) / STEPS_TO_MAX);
+    this.batchSize = clamp(initialBatchSize);
+  }
+
+  synchronized int batchSize() {
+    return batchSize;
+  }
+
+  /**
+   * Records a successful upsert of {@code tagCount} tags that took {@code elapsedNanos}.
+   */
+  synchronized void onSuccess(final int tagCount, final long elapsedNanos) {
+    if (tagCount == 0) {
+      return;
+    }
+    final double nanosPerTag = (double) elapsedNanos / tagCount;
+    if (averageNanosPerTag == 0) {
+      averageNanosPerTag = nanosPerTag;
+    }
+    if (nanosPerTag > averageNanosPerTag * SLOW_CALL_FACTOR) {
+      resize(batchSize / 2);
+    } else {
+      resize(batchSize + increaseStep);
+    }
+    averageNanosPerTag += LATENCY_SMOOTHING * (nanosPerTag - averageNanosPerTag);
+  }
+
+  /**
+   * Records a failed upsert.
+   */
+  synchronized void onFailure() {
+    resize(batchSize / 2);
+  }
+
+  private void resize(final int newBatchSize) {
+    final int clamped = clamp(newBatchSize);
+    if (clamped != batchSize) {
+      log.debug("Tag upsert batch size changed from {} to {}", batchSize, clamped);
+      batchSize = clamped;
+    }
+  }
+
+  private int clamp(final int size) {
+    return Math.max(minBatchSize, Math.min(maxBatchSize, size));
+  }
+}
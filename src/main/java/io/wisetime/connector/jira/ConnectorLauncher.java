@@ -6,6 +6,8 @@ package io.wisetime.connector.jira;
 
 import com.google.inject.AbstractModule;
 import com.google.inject.Guice;
+import com.google.inject.matcher.Matchers;
+import com.google.inject.name.Names;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
 import io.wisetime.connector.ConnectorController;
@@ -41,8 +43,31 @@ public class ConnectorLauncher {
     JIRA_JDBC_URL("JIRA_JDBC_URL"),
     JIRA_DB_USER("JIRA_DB_USER"),
     JIRA_DB_PASSWORD("JIRA_DB_PASSWORD"),
+    JIRA_READ_JDBC_URL("JIRA_READ_JDBC_URL"),
+    JIRA_READ_DB_USER("JIRA_READ_DB_USER"),
+    JIRA_READ_DB_PASSWORD("JIRA_READ_DB_PASSWORD"),
+    JIRA_READ_MAX_LAG_SECONDS("JIRA_READ_MAX_LAG_SECONDS"),
+    JIRA_DB_POOL_SIZE("JIRA_DB_POOL_SIZE"),
+    // Must allow for every concurrent scan: each project synced in parallel (TAG_SYNC_PARALLEL_PROJECTS), the tag
+    // refresh, the check for deleted issues and the replica lag sample. Scans wait up to 10 minutes for a connection.
+    JIRA_SCAN_POOL_SIZE("JIRA_SCAN_POOL_SIZE"),
     TAG_UPSERT_PATH("TAG_UPSERT_PATH"),
     TAG_UPSERT_BATCH_SIZE("TAG_UPSERT_BATCH_SIZE"),
+    TAG_UPSERT_BATCH_SIZE_MIN("TAG_UPSERT_BATCH_SIZE_MIN"),
+    TAG_UPSERT_BATCH_SIZE_MAX("TAG_UPSERT_BATCH_SIZE_MAX"),
+    TAG_SYNC_PREFETCH_BATCHES("TAG_SYNC_PREFETCH_BATCHES"),
+    TAG_UPSERT_WORKERS("TAG_UPSERT_WORKERS"),
+    TAG_SYNC_SCAN("TAG_SYNC_SCAN"),
+    TAG_SYNC_PARALLEL_PROJECTS("TAG_SYNC_PARALLEL_PROJECTS"),
+    TAG_REFRESH_MODE("TAG_REFRESH_MODE"),
+    TAG_FULL_REFRESH_DAYS("TAG_FULL_REFRESH_DAYS"),
+    TAG_DELETE_REMOVED_ISSUES("TAG_DELETE_REMOVED_ISSUES"),
+    POST_TIME_GROUP_COMMIT_MILLIS("POST_TIME_GROUP_COMMIT_MILLIS"),
+    POSTED_TIME_RETENTION_DAYS("POSTED_TIME_RETENTION_DAYS"),
+    ISSUE_ID_CACHE_SIZE("ISSUE_ID_CACHE_SIZE"),
+    ISSUE_KEY_FILTER("ISSUE_KEY_FILTER"),
+    METRICS_PORT("METRICS_PORT"),
+    METRICS_BIND_ADDRESS("METRICS_BIND_ADDRESS"),
     PROJECT_KEYS_FILTER("PROJECT_KEYS_FILTER"),
     JIRA_ISSUE_URL_PREFIX("JIRA_ISSUE_URL_PREFIX");
 
@@ -60,32 +85,106 @@ public class ConnectorLauncher {
 
   /**
    * Bind the Jira database connection via DI.
+   *
+   * Issue scans of the tag sync get their own, smaller pool named {@link #SCAN_POOL}, so that they can't take the
+   * connections that posting time needs. If a read replica is configured, it is bound as a data source named
+   * {@link #READ_REPLICA} with the size of the scan pool. Worklog IDs are reserved over a single connection of their
+   * own, named {@link #WORKLOG_SEQUENCE}, as posts reserve them while already holding a connection of the main pool.
+   * The latency of every {@link JiraDao} method is recorded.
    */
   public static class JiraDbModule extends AbstractModule {
 
+    public static final String SCAN_POOL = "jiraScan";
+    public static final String READ_REPLICA = "jiraReadReplica";
+    public static final String WORKLOG_SEQUENCE = "jiraWorklogSequence";
+    // Scans that run alongside the sync of new issues: tag refresh, check for deleted issues and replica lag sample
+    private static final int BACKGROUND_SCANS = 3;
+
     @Override
     protected void configure() {
-      final HikariConfig hikariConfig = new HikariConfig();
-
-      hikariConfig.setJdbcUrl(
-          RuntimeConfig.getString(JiraConnectorConfigKey.JIRA_JDBC_URL)
-              .orElseThrow(() -> new RuntimeException("Missing required JIRA_JDBC_URL configuration"))
-      );
+      final String jdbcUrl = RuntimeConfig.getString(JiraConnectorConfigKey.JIRA_JDBC_URL)
+          .orElseThrow(() -> new RuntimeException("Missing required JIRA_JDBC_URL configuration"));
+      final String username = RuntimeConfig.getString(JiraConnectorConfigKey.JIRA_DB_USER)
+          .orElseThrow(() -> new RuntimeException("Missing required JIRA_DB_USER configuration"));
+      final String password = RuntimeConfig.getString(JiraConnectorConfigKey.JIRA_DB_PASSWORD)
+          .orElseThrow(() -> new RuntimeException("Missing required JIRA_JDBC_PASSWORD configuration"));
+
+      final HikariConfig primaryConfig = hikariConfig(jdbcUrl, username, password);
+      primaryConfig.setPoolName("jira-primary");
+      primaryConfig.setMaximumPoolSize(RuntimeConfig.getInt(JiraConnectorConfigKey.JIRA_DB_POOL_SIZE).orElse(10));
+      bind(HikariDataSource.class).toInstance(new HikariDataSource(primaryConfig));
+
+      final int scanPoolSize = RuntimeConfig.getInt(JiraConnectorConfigKey.JIRA_SCAN_POOL_SIZE)
+          .orElseGet(JiraDbModule::defaultScanPoolSize);
+      final HikariConfig scanConfig = scanPoolConfig(hikariConfig(jdbcUrl, username, password), scanPoolSize);
+      scanConfig.setPoolName("jira-scan");
+      bind(HikariDataSource.class)
+          .annotatedWith(Names.named(SCAN_POOL))
+          .toInstance(new HikariDataSource(scanConfig));
+
+      final HikariConfig sequenceConfig = hikariConfig(jdbcUrl, username, password);
+      sequenceConfig.setPoolName("jira-worklog-sequence");
+      sequenceConfig.setMaximumPoolSize(1);
+      bind(HikariDataSource.class)
+          .annotatedWith(Names.named(WORKLOG_SEQUENCE))
+          .toInstance(new HikariDataSource(sequenceConfig));
+
+      final JiraDaoMetricsInterceptor metricsInterceptor = new JiraDaoMetricsInterceptor();
+      requestInjection(metricsInterceptor);
+      bindInterceptor(Matchers.subclassesOf(JiraDao.class), JiraDaoMetricsInterceptor.daoMethods(), metricsInterceptor);
+
+      RuntimeConfig.getString(JiraConnectorConfigKey.JIRA_READ_JDBC_URL).ifPresent(readJdbcUrl -> {
+        final HikariConfig readConfig = scanPoolConfig(hikariConfig(
+            readJdbcUrl,
+            RuntimeConfig.getString(JiraConnectorConfigKey.JIRA_READ_DB_USER).orElse(username),
+            RuntimeConfig.getString(JiraConnectorConfigKey.JIRA_READ_DB_PASSWORD).orElse(password)
+        ), scanPoolSize);
+        readConfig.setPoolName("jira-read-replica");
+        readConfig.setReadOnly(true);
+        bind(HikariDataSource.class)
+            .annotatedWith(Names.named(READ_REPLICA))
+            .toInstance(new HikariDataSource(readConfig));
+      });
+    }
 
-      hikariConfig.setUsername(
-          RuntimeConfig.getString(JiraConnectorConfigKey.JIRA_DB_USER)
-              .orElseThrow(() -> new RuntimeException("Missing required JIRA_DB_USER configuration"))
-      );
+    /**
+     * Enough connections for every project synced in parallel and the background scans, so that none of them waits
+     * behind a long running scan.
+     */
+    private static int defaultScanPoolSize() {
+      final int parallelSyncs = Math.max(RuntimeConfig.getInt(JiraConnectorConfigKey.TAG_SYNC_PARALLEL_PROJECTS)
+          .orElse(0), 1);
+      return parallelSyncs + BACKGROUND_SCANS;
+    }
 
-      hikariConfig.setPassword(
-          RuntimeConfig.getString(JiraConnectorConfigKey.JIRA_DB_PASSWORD)
-              .orElseThrow(() -> new RuntimeException("Missing required JIRA_JDBC_PASSWORD configuration"))
-      );
+    private static HikariConfig hikariConfig(final String jdbcUrl, final String username, final String password) {
+      final HikariConfig hikariConfig = new HikariConfig();
+      hikariConfig.setJdbcUrl(jdbcUrl);
+      if (jdbcUrl.startsWith("jdbc:mysql:")) {
+        // Send batched statements as multi-row statements instead of one round trip per row
+        hikariConfig.addDataSourceProperty("rewriteBatchedStatements", "true");
+      } else if (jdbcUrl.startsWith("jdbc:postgresql:")) {
+        hikariConfig.addDataSourceProperty("reWriteBatchedInserts", "true");
+      }
+      hikariConfig.setUsername(username);
+      hikariConfig.setPassword(password);
       hikariConfig.setConnectionTimeout(TimeUnit.MINUTES.toMillis(1));
       hikariConfig.setMaximumPoolSize(10);
-
-      bind(HikariDataSource.class).toInstance(new HikariDataSource(hikariConfig));
+      hikariConfig.setMetricsTrackerFactory(new PoolPartitionMetrics());
+      return hikariConfig;
     }
 
+    private static HikariConfig scanPoolConfig(final HikariConfig hikariConfig, final int poolSize) {
+      if (hikariConfig.getJdbcUrl().startsWith("jdbc:mysql:")) {
+        // Without it, MySQL reads the whole result set into memory regardless of the fetch size. Only scans stream
+        // large results, other queries are left without the extra round trips of a server side cursor.
+        hikariConfig.addDataSourceProperty("useCursorFetch", "true");
+      }
+      hikariConfig.setMaximumPoolSize(poolSize);
+      hikariConfig.setMinimumIdle(Math.min(poolSize, 1));
+      // Scans hold their connection while their issues are upserted, background work waits for them instead of failing
+      hikariConfig.setConnectionTimeout(TimeUnit.MINUTES.toMillis(10));
+      return hikariConfig;
+    }
   }
 }
@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2026 Practice Insight Pty Ltd. All Rights Reserved.
+ */
+
+package io.wisetime.connector.jira;
+
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.reflect.AbstractInvocationHandler;
+import com.google.common.reflect.Reflection;
+import com.google.inject.Singleton;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Supplier;
+
+/**
+ * Registry of the connector's operational metrics. A gauge reports its current value whenever the metrics are read,
+ * and a counter its running total.
+ * Latencies are recorded per operation, in histograms grouped by the component that performs the operation.
+ */
+@Singleton
+class ConnectorMetrics {
+
+  private static final String PREFIX = "wisetime_jira_";
+
+  private final Map<String, Supplier<? extends Number>> gauges = new ConcurrentHashMap<>();
+  private final Map<String, Supplier<? extends Number>> counters = new ConcurrentHashMap<>();
+  // Histograms by component, then by operation
+  private final Map<String, Map<String, LatencyHistogram>> latencies = new ConcurrentSkipListMap<>();
+
+  /**
+   * Registers a gauge, replacing any gauge previously registered under the same name.
+   */
+  void registerGauge(final String name, final Supplier<? extends Number> gauge) {
+    gauges.put(name, gauge);
+  }
+
+  /**
+   * Registers a counter of a total that only grows, replacing any counter previously registered under the same name.
+   * The counter is reported with the {@code _total} suffix.
+   */
+  void registerCounter(final String name, final Supplier<? extends Number> counter) {
+    counters.put(name + "_total", counter);
+  }
+
+  /**
+   * Records how long an operation took and whether it failed.
+   */
+  void recordLatency(final String component, final String operation, final long durationNanos,
+                     final boolean failed) {
+    latencies.computeIfAbsent(component, c -> new ConcurrentSkipListMap<>())
+        .computeIfAbsent(operation, o -> new LatencyHistogram())
+        .record(durationNanos, failed);
+  }
+
+  /**
+   * Wraps the object so that the latency of every call of the interface's methods is recorded, with the method name
+   * as the operation.
+   */
+  <T> T timed(final Class<T> type, final String component, final T target) {
+    return Reflection.newProxy(type, new AbstractInvocationHandler() {
+      @Override
+      protected Object handleInvocation(final Object proxy, final Method method, final Object[] args)
+          throws Throwable {
+        final long start = System.nanoTime();
+        boolean failed = true;
+        try {
+          final Object result = method.invoke(target, args);
+          failed = false;
+          return result;
+        } catch (InvocationTargetException e) {
+          throw e.getCause();
+        } finally {
+          recordLatency(component, method.getName(), System.nanoTime() - start, failed);
+        }
+      }
+    });
+  }
+
+  /**
+   * @return the current value of every gauge and counter, sorted by name
+   */
+  Map<String, Number> snapshot() {
+    final ImmutableSortedMap.Builder<String, Number> values = ImmutableSortedMap.naturalOrder();
+    gauges.forEach((name, gauge) -> values.put(name, gauge.get()));
+    counters.forEach((name, counter) -> values.put(name, counter.get()));
+    return values.build();
+  }
+
+  /**
+   * @return all metrics in the Prometheus text exposition format
+   */
+  String prometheusText() {
+    final StringBuilder text = new StringBuilder();
+    snapshot().forEach((name, value) -> {
+      final String metric = PREFIX + sanitize(name);
+      text.append("# TYPE ").append(metric).append(counters.containsKey(name) ? " counter\n" : " gauge\n")
+          .append(metric).append(' ').append(value).append('\n');
+    });
+    latencies.forEach((component, histograms) -> {
+      final String metric = PREFIX + sanitize(component) + "_duration_seconds";
+      text.append("# TYPE ").append(metric).append(" histogram\n");
+      histograms.forEach((operation, histogram) -> {
+        final String label = "operation=\"" + operation + "\"";
+        final long[] bucketCounts = histogram.cumulativeBucketCounts();
+        for (int i = 0; i < bucketCounts.length; i++) {
+          text.append(metric).append("_bucket{").append(label)
+              .append(",le=\"").append(LatencyHistogram.BUCKET_BOUNDS[i]).append("\"} ")
+              .append(bucketCounts[i]).append('\n');
+        }
+        final long count = histogram.count();
+        text.append(metric).append("_bucket{").append(label).append(",le=\"+Inf\"} ").append(count).append('\n')
+            .append(metric).append("_sum{").append(label).append("} ").append(histogram.totalSeconds()).append('\n')
+            .append(metric).append("_count{").append(label).append("} ").append(count).append('\n');
+      });
+      final String errorMetric = PREFIX + sanitize(component) + "_errors_total";
+      text.append("# TYPE ").append(errorMetric).append(" counter\n");
+      histograms.forEach((operation, histogram) -> text.append(errorMetric)
+          .append("{operation=\"").append(operation).append("\"} ").append(histogram.errors()).append('\n'));
+    });
+    return text.toString();
+  }
+
+  private static String sanitize(final String name) {
+    return name.replaceAll("[^a-zA-Z0-9_]", "_");
+  }
+}
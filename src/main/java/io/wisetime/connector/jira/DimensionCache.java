@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2026 Practice Insight Pty Ltd. All Rights Reserved.
+ */
+
+package io.wisetime.connector.jira;
+
+import com.google.common.collect.ImmutableMap;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import lombok.Getter;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * In memory copy of the small, rarely changing Jira tables that issue queries would otherwise join: project keys and
+ * issue type names by ID.
+ *
+ * The copy is reloaded when it is older than the maximum age. It is also reloaded when a lookup misses, because a
+ * project or issue type may have been created since the last load. A value that is still missing after a reload is
+ * remembered as missing until the next reload, so that it does not cause a reload on every lookup.
+ */
+class DimensionCache {
+
+  private static final Logger log = LoggerFactory.getLogger(DimensionCache.class);
+
+  private final Supplier<Dimensions> loader;
+  private final Duration maxAge;
+  private volatile Dimensions dimensions;
+
+  DimensionCache(final Supplier<Dimensions> loader, final Duration maxAge) {
+    this.loader = loader;
+    this.maxAge = maxAge;
+  }
+
+  Optional<String> projectKey(final long projectId) {
+    return Optional.ofNullable(
+        lookup("project id " + projectId, dimensions -> dimensions.getProjectKeysById().get(projectId))
+    );
+  }
+
+  /**
+   * Project keys are matched regardless of case, like the database lookups that this cache replaced.
+   *
+   * @return IDs of the projects with the given keys, leaving out keys that don't exist
+   */
+  List<Long> projectIds(final String... projectKeys) {
+    return Arrays.stream(projectKeys)
+        .map(String::toUpperCase)
+        .map(projectKey ->
+            lookup("project key " + projectKey, dimensions -> dimensions.getProjectIdsByKey().get(projectKey))
+        )
+        .filter(Objects::nonNull)
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * @return the issue type name, or an empty string if there is no issue type
+   */
+  String issueTypeName(final String issueTypeId) {
+    if (issueTypeId == null) {
+      return "";
+    }
+    return StringUtils.trimToEmpty(
+        lookup("issue type id " + issueTypeId, dimensions -> dimensions.getIssueTypeNamesById().get(issueTypeId))
+    );
+  }
+
+  /**
+   * Discards the cached tables. They are loaded again on the next lookup.
+   */
+  void invalidate() {
+    dimensions = null;
+  }
+
+  private <T> T lookup(final String key, final Function<Dimensions, T> getter) {
+    Dimensions current = current();
+    final T value = getter.apply(current);
+    if (value != null || current.getMissing().contains(key)) {
+      return value;
+    }
+    current = reload(current);
+    final T reloadedValue = getter.apply(current);
+    if (reloadedValue == null) {
+      current.getMissing().add(key);
+    }
+    return reloadedValue;
+  }
+
+  private Dimensions current() {
+    final Dimensions current = dimensions;
+    if (current == null || current.getLoadedAt().plus(maxAge).isBefore(Instant.now())) {
+      return reload(current);
+    }
+    return current;
+  }
+
+  private synchronized Dimensions reload(final Dimensions stale) {
+    if (dimensions != stale) {
+      // Another thread reloaded in the meantime
+      return dimensions;
+    }
+    final Dimensions loaded = loader.get();
+    log.debug("Loaded {} projects and {} issue types",
+        loaded.getProjectKeysById().size(), loaded.getIssueTypeNamesById().size());
+    dimensions = loaded;
+    return loaded;
+  }
+
+  /**
+   * Loaded copy of the dimension tables.
+   */
+  @Getter
+  static class Dimensions {
+
+    private final Map<Long, String> projectKeysById;
+    // By upper case project key
+    private final Map<String, Long> projectIdsByKey;
+    private final Map<String, String> issueTypeNamesById;
+    private final Instant loadedAt = Instant.now();
+    private final Set<String> missing = ConcurrentHashMap.newKeySet();
+
+    Dimensions(final Map<Long, String> projectKeysById, final Map<String, String> issueTypeNamesById) {
+      this.projectKeysById = ImmutableMap.copyOf(projectKeysById);
+      this.projectIdsByKey = projectKeysById.entrySet().stream()
+          .collect(ImmutableMap.toImmutableMap(
+              project -> project.getValue().toUpperCase(), Map.Entry::getKey, (first, second) -> first
+          ));
+      this.issueTypeNamesById = ImmutableMap.copyOf(issueTypeNamesById);
+    }
+  }
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright (c) 2026 Practice Insight Pty Ltd. All Rights Reserved.
+ */
+
+package io.wisetime.connector.jira;
+
+import java.util.Arrays;
+
+/**
+ * Removes emojis from text in a single pass, by looking up each code point in a sorted table of emoji code point
+ * ranges. Removes the emojis that {@code EmojiParser.removeAllEmojis} removes, including skin tone modifiers, flags,
+ * keycaps and sequences joined with zero width joiners, without walking a trie of every known emoji sequence. In the
+ * Basic Multilingual Plane only emoji code points are removed, so symbols such as check marks and stars are kept. Some
+ * symbols in the supplementary emoji blocks that aren't emojis are removed as well.
+ */
+final class EmojiStripper {
+
+  private static final int ZERO_WIDTH_JOINER = 0x200D;
+  private static final int TEXT_PRESENTATION_SELECTOR = 0xFE0E;
+  private static final int EMOJI_PRESENTATION_SELECTOR = 0xFE0F;
+  private static final int COMBINING_KEYCAP = 0x20E3;
+  // Code points below this are never part of an emoji, apart from the keycap bases
+  private static final int FIRST_EMOJI_CODE_POINT = 0xA9;
+
+  // Start and end (inclusive) of each range of emoji code points, in ascending order
+  private static final int[] EMOJI_RANGES = {
+      0x00A9, 0x00A9, // copyright
+      0x00AE, 0x00AE, // registered
+      0x203C, 0x203C,
+      0x2049, 0x2049,
+      0x2122, 0x2122, // trade mark
+      0x2139, 0x2139,
+      0x2194, 0x2199, // arrows
+      0x21A9, 0x21AA,
+      0x231A, 0x231B,
+      0x2328, 0x2328,
+      0x23CF, 0x23CF,
+      0x23E9, 0x23F3,
+      0x23F8, 0x23FA,
+      0x24C2, 0x24C2,
+      0x25AA, 0x25AB,
+      0x25B6, 0x25B6,
+      0x25C0, 0x25C0,
+      0x25FB, 0x25FE,
+      0x2600, 0x2604, // emojis among the miscellaneous symbols and dingbats
+      0x260E, 0x260E,
+      0x2611, 0x2611,
+      0x2614, 0x2615,
+      0x2618, 0x2618,
+      0x261D, 0x261D,
+      0x2620, 0x2620,
+      0x2622, 0x2623,
+      0x2626, 0x2626,
+      0x262A, 0x262A,
+      0x262E, 0x262F,
+      0x2638, 0x263A,
+      0x2640, 0x2640,
+      0x2642, 0x2642,
+      0x2648, 0x2653,
+      0x265F, 0x2660,
+      0x2663, 0x2663,
+      0x2665, 0x2666,
+      0x2668, 0x2668,
+      0x267B, 0x267B,
+      0x267E, 0x267F,
+      0x2692, 0x2697,
+      0x2699, 0x2699,
+      0x269B, 0x269C,
+      0x26A0, 0x26A1,
+      0x26A7, 0x26A7,
+      0x26AA, 0x26AB,
+      0x26B0, 0x26B1,
+      0x26BD, 0x26BE,
+      0x26C4, 0x26C5,
+      0x26C8, 0x26C8,
+      0x26CE, 0x26CF,
+      0x26D1, 0x26D1,
+      0x26D3, 0x26D4,
+      0x26E9, 0x26EA,
+      0x26F0, 0x26F5,
+      0x26F7, 0x26FA,
+      0x26FD, 0x26FD,
+      0x2702, 0x2702,
+      0x2705, 0x2705,
+      0x2708, 0x270D,
+      0x270F, 0x270F,
+      0x2712, 0x2712,
+      0x2714, 0x2714,
+      0x2716, 0x2716,
+      0x271D, 0x271D,
+      0x2721, 0x2721,
+      0x2728, 0x2728,
+      0x2733, 0x2734,
+      0x2744, 0x2744,
+      0x2747, 0x2747,
+      0x274C, 0x274C,
+      0x274E, 0x274E,
+      0x2753, 0x2755,
+      0x2757, 0x2757,
+      0x2763, 0x2764,
+      0x2795, 0x2797,
+      0x27A1, 0x27A1,
+      0x27B0, 0x27B0,
+      0x27BF, 0x27BF,
+      0x2934, 0x2935,
+      0x2B05, 0x2B07,
+      0x2B1B, 0x2B1C,
+      0x2B50, 0x2B50,
+      0x2B55, 0x2B55,
+      0x3030, 0x3030,
+      0x303D, 0x303D,
+      0x3297, 0x3297,
+      0x3299, 0x3299,
+      0x1F000, 0x1F0FF, // mahjong tiles, dominoes and playing cards
+      0x1F100, 0x1F2FF, // enclosed alphanumerics and ideographs, including regional indicators for flags
+      0x1F300, 0x1F64F, // pictographs, including skin tone modifiers, and emoticons
+      0x1F680, 0x1F6FF, // transport and map symbols
+      0x1F780, 0x1F7FF, // geometric shapes extended
+      0x1F900, 0x1FAFF, // supplemental pictographs
+      0xE0020, 0xE007F, // tags of subdivision flags
+  };
+
+  // Reused by each thread to build the stripped text
+  private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(1024));
+
+  private EmojiStripper() {
+  }
+
+  /**
+   * @return the text without emojis, or the text itself if it has none
+   */
+  static String removeAllEmojis(final String text) {
+    if (text == null || !mayContainEmoji(text)) {
+      return text;
+    }
+    final StringBuilder stripped = BUFFER.get();
+    stripped.setLength(0);
+    // Joiners and variation selectors only belong to an emoji if they follow one
+    boolean afterEmoji = false;
+    for (int i = 0; i < text.length(); ) {
+      final int codePoint = text.codePointAt(i);
+      i += Character.charCount(codePoint);
+
+      if (codePoint == COMBINING_KEYCAP) {
+        // The keycap makes an emoji of the digit, # or * before it
+        final int last = stripped.length() - 1;
+        if (last >= 0 && isKeycapBase(stripped.charAt(last))) {
+          stripped.setLength(last);
+        }
+        afterEmoji = true;
+      } else if (codePoint == EMOJI_PRESENTATION_SELECTOR) {
+        // Turns the character before it into an emoji, so it is never meant as text
+        afterEmoji = true;
+      } else if (afterEmoji && (codePoint == ZERO_WIDTH_JOINER || codePoint == TEXT_PRESENTATION_SELECTOR)) {
+        afterEmoji = codePoint == ZERO_WIDTH_JOINER;
+      } else if (isEmoji(codePoint)) {
+        afterEmoji = true;
+      } else {
+        stripped.appendCodePoint(codePoint);
+        afterEmoji = false;
+      }
+    }
+    return stripped.toString();
+  }
+
+  private static boolean mayContainEmoji(final String text) {
+    for (int i = 0; i < text.length(); i++) {
+      if (text.charAt(i) >= FIRST_EMOJI_CODE_POINT) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean isEmoji(final int codePoint) {
+    if (codePoint < FIRST_EMOJI_CODE_POINT) {
+      return false;
+    }
+    final int index = Arrays.binarySearch(EMOJI_RANGES, codePoint);
+    if (index >= 0) {
+      // A range start or end
+      return true;
+    }
+    final int insertionPoint = -index - 1;
+    // Inside a range if the code point comes after a range start (even index)
+    return insertionPoint % 2 == 1;
+  }
+
+  private static boolean isKeycapBase(final char c) {
+    return (c >= '0' && c <= '9') || c == '#' || c == '*';
+  }
+}
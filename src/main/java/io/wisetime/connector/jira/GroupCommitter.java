@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2026 Practice Insight Pty Ltd. All Rights Reserved.
+ */
+
+package io.wisetime.connector.jira;
+
+import com.google.common.base.Throwables;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Commits database writes that arrive close together from different threads in a single transaction, so that they
+ * share the cost of one commit.
+ *
+ * Callers run the work that leads up to their write through {@link #participate}. The first thread to submit a write
+ * waits up to the linger time for the writes of the other participants, then commits the group on behalf of all of
+ * them. It only waits while other participants are yet to submit their write, so a write that doesn't overlap with
+ * others is committed straight away. Every write is applied in its own savepoint, so a write that fails is rolled back
+ * on its own and only its submitter sees the failure.
+ */
+class GroupCommitter {
+
+  private static final Logger log = LoggerFactory.getLogger(GroupCommitter.class);
+
+  private final Function<List<Runnable>, List<Optional<RuntimeException>>> commitGroup;
+  private final long lingerNanos;
+  private final int maxGroupSize;
+  private List<PendingWrite> pendingWrites = new ArrayList<>();
+  // Whether a thread is collecting the pending writes into a group
+  private boolean collecting = false;
+  // Participants that haven't submitted their write yet
+  private int expectedWrites = 0;
+  // Whether the current thread is a participant that hasn't submitted its write yet
+  private final ThreadLocal<Boolean> awaitingWrite = ThreadLocal.withInitial(() -> false);
+
+  /**
+   * @param commitGroup applies the writes of a group in one transaction, and returns the failure of each write
+   */
+  GroupCommitter(final Function<List<Runnable>, List<Optional<RuntimeException>>> commitGroup,
+                 final Duration linger, final int maxGroupSize) {
+    this.commitGroup = commitGroup;
+    this.lingerNanos = linger.toNanos();
+    this.maxGroupSize = maxGroupSize;
+  }
+
+  /**
+   * Runs work that may submit a write through {@link #apply}, so that groups being collected meanwhile wait for it.
+   */
+  <T> T participate(final Supplier<T> work) {
+    synchronized (this) {
+      expectedWrites++;
+    }
+    awaitingWrite.set(true);
+    try {
+      return work.get();
+    } finally {
+      if (awaitingWrite.get()) {
+        awaitingWrite.set(false);
+        synchronized (this) {
+          expectedWrites--;
+          notifyAll();
+        }
+      }
+    }
+  }
+
+  /**
+   * Runs work of a participant that may wait for the write of another participant, such as taking a lock that the
+   * other holds. Groups don't wait for the participant meanwhile, so that the two don't wait for each other.
+   */
+  void standAside(final Runnable work) {
+    if (!awaitingWrite.get()) {
+      work.run();
+      return;
+    }
+    awaitingWrite.set(false);
+    synchronized (this) {
+      expectedWrites--;
+      notifyAll();
+    }
+    try {
+      work.run();
+    } finally {
+      synchronized (this) {
+        expectedWrites++;
+      }
+      awaitingWrite.set(true);
+    }
+  }
+
+  /**
+   * Applies the write as part of a group, and returns once the group was committed.
+   *
+   * @throws RuntimeException if the write failed, or if the group couldn't be committed
+   */
+  void apply(final Runnable write) {
+    final PendingWrite pendingWrite = new PendingWrite(write);
+    final boolean leader;
+    final boolean participant = awaitingWrite.get();
+    awaitingWrite.set(false);
+    synchronized (this) {
+      pendingWrites.add(pendingWrite);
+      if (participant) {
+        expectedWrites--;
+      }
+      leader = !collecting;
+      collecting = true;
+      notifyAll();
+    }
+    if (leader) {
+      commit(collectGroup());
+    }
+    awaitCommit(pendingWrite);
+  }
+
+  private synchronized List<PendingWrite> collectGroup() {
+    final long deadline = System.nanoTime() + lingerNanos;
+    try {
+      long remainingNanos = lingerNanos;
+      while (pendingWrites.size() < maxGroupSize && expectedWrites > 0 && remainingNanos > 0) {
+        wait(remainingNanos / 1_000_000, (int) (remainingNanos % 1_000_000));
+        remainingNanos = deadline - System.nanoTime();
+      }
+    } catch (InterruptedException e) {
+      // Commit what was collected so far
+      Thread.currentThread().interrupt();
+    }
+    final List<PendingWrite> group = pendingWrites;
+    pendingWrites = new ArrayList<>();
+    collecting = false;
+    return group;
+  }
+
+  private void commit(final List<PendingWrite> group) {
+    try {
+      final List<Optional<RuntimeException>> failures = commitGroup.apply(
+          group.stream().map(PendingWrite::getWrite).collect(Collectors.toList())
+      );
+      for (int i = 0; i < group.size(); i++) {
+        final Optional<RuntimeException> failure = failures.get(i);
+        if (failure.isPresent()) {
+          group.get(i).getDone().completeExceptionally(failure.get());
+        } else {
+          group.get(i).getDone().complete(null);
+        }
+      }
+      log.debug("Committed a group of {} writes", group.size());
+    } catch (RuntimeException e) {
+      group.forEach(pendingWrite -> pendingWrite.getDone().completeExceptionally(e));
+    }
+  }
+
+  private static void awaitCommit(final PendingWrite pendingWrite) {
+    try {
+      pendingWrite.getDone().get();
+    } catch (ExecutionException e) {
+      Throwables.throwIfUnchecked(e.getCause());
+      throw new RuntimeException(e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted while waiting for a group commit", e);
+    }
+  }
+
+  private static class PendingWrite {
+
+    private final Runnable write;
+    private final CompletableFuture<Void> done = new CompletableFuture<>();
+
+    PendingWrite(final Runnable write) {
+      this.write = write;
+    }
+
+    Runnable getWrite() {
+      return write;
+    }
+
+    CompletableFuture<Void> getDone() {
+      return done;
+    }
+  }
+}
@@ -0,0 +1,213 @@
+/*
+ * Copyright (c) 2026 Practice Insight Pty Ltd. All Rights Reserved.
+ */
+
+package io.wisetime.connector.jira;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import io.wisetime.generated.connect.UpsertTagRequest;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Remembers a 32 bit digest of the tag last upserted to WiseTime for each Jira issue, so that a refresh can skip
+ * issues whose tag would not change.
+ *
+ * Digests are held in an open addressing hash table of primitive arrays (12 bytes per slot), and persisted to an
+ * append only file of (issue ID, digest) records. The file is rewritten from memory once it holds more than twice as
+ * many records as there are issues. Without a file, digests are only kept in memory.
+ */
+class IssueDigestStore {
+
+  private static final Logger log = LoggerFactory.getLogger(IssueDigestStore.class);
+  private static final int RECORD_BYTES = Long.BYTES + Integer.BYTES;
+  private static final int MIN_RECORDS_BEFORE_COMPACTION = 10_000;
+
+  private final Optional<Path> file;
+  // Issue IDs are never zero, so zero marks an empty slot
+  private long[] issueIds = new long[1024];
+  private int[] digests = new int[1024];
+  private int size = 0;
+  private long recordsInFile = 0;
+  private DataOutputStream appender;
+
+  IssueDigestStore(final Optional<Path> file) {
+    this.file = file;
+    file.ifPresent(this::load);
+  }
+
+  /**
+   * @return true if the tag request is the same as the one last recorded for the issue
+   */
+  synchronized boolean isUnchanged(final long issueId, final UpsertTagRequest request) {
+    final int slot = slotOf(issueId);
+    return issueIds[slot] == issueId && digests[slot] == digestOf(request);
+  }
+
+  /**
+   * Records the tag requests that were upserted to WiseTime, keyed by issue ID.
+   */
+  synchronized void putAll(final Map<Long, UpsertTagRequest> requests) {
+    final Map<Long, Integer> newDigests = new LinkedHashMap<>();
+    requests.forEach((issueId, request) -> newDigests.put(issueId, digestOf(request)));
+    newDigests.forEach(this::put);
+    file.ifPresent(path -> append(path, newDigests));
+  }
+
+  @VisibleForTesting
+  synchronized int size() {
+    return size;
+  }
+
+  @VisibleForTesting
+  static int digestOf(final UpsertTagRequest request) {
+    final Hasher hasher = Hashing.murmur3_128().newHasher();
+    putField(hasher, request.getName());
+    putField(hasher, request.getDescription());
+    putField(hasher, request.getPath());
+    putField(hasher, request.getUrl());
+    putField(hasher, request.getExternalId());
+    if (request.getAdditionalKeywords() != null) {
+      request.getAdditionalKeywords().forEach(keyword -> putField(hasher, keyword));
+    }
+    if (request.getMetadata() != null) {
+      new TreeMap<>(request.getMetadata()).forEach((key, value) -> {
+        putField(hasher, key);
+        putField(hasher, value);
+      });
+    }
+    return hasher.hash().asInt();
+  }
+
+  private static void putField(final Hasher hasher, final String value) {
+    if (value == null) {
+      hasher.putInt(-1);
+    } else {
+      hasher.putInt(value.length()).putString(value, StandardCharsets.UTF_8);
+    }
+  }
+
+  private void put(final long issueId, final int digest) {
+    final int slot = slotOf(issueId);
+    if (issueIds[slot] == 0) {
+      issueIds[slot] = issueId;
+      size++;
+    }
+    digests[slot] = digest;
+    if (size * 4L > issueIds.length * 3L) {
+      resize();
+    }
+  }
+
+  private int slotOf(final long issueId) {
+    final int mask = issueIds.length - 1;
+    int slot = Long.hashCode(issueId * 0x9E3779B97F4A7C15L) & mask;
+    while (issueIds[slot] != 0 && issueIds[slot] != issueId) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  private void resize() {
+    final long[] oldIssueIds = issueIds;
+    final int[] oldDigests = digests;
+    issueIds = new long[oldIssueIds.length * 2];
+    digests = new int[oldIssueIds.length * 2];
+    size = 0;
+    for (int i = 0; i < oldIssueIds.length; i++) {
+      if (oldIssueIds[i] != 0) {
+        put(oldIssueIds[i], oldDigests[i]);
+      }
+    }
+  }
+
+  private void load(final Path path) {
+    if (!Files.exists(path)) {
+      return;
+    }
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+      while (true) {
+        final long issueId = in.readLong();
+        put(issueId, in.readInt());
+        recordsInFile++;
+      }
+    } catch (EOFException e) {
+      log.info("Loaded {} issue digests from {}", size, path);
+    } catch (IOException e) {
+      log.warn("Failed to read all issue digests from {}", path, e);
+    }
+    // Also rewrite the file if its last record was only partially written, so that new records are aligned
+    if (recordsInFile > (long) size * 2 || fileSize(path) != recordsInFile * RECORD_BYTES) {
+      compact(path);
+    }
+  }
+
+  private void append(final Path path, final Map<Long, Integer> newDigests) {
+    try {
+      if (appender == null) {
+        appender = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path,
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)));
+      }
+      for (Map.Entry<Long, Integer> digest : newDigests.entrySet()) {
+        appender.writeLong(digest.getKey());
+        appender.writeInt(digest.getValue());
+      }
+      appender.flush();
+      recordsInFile += newDigests.size();
+    } catch (IOException e) {
+      // Digests only save API calls, losing them is harmless
+      log.warn("Failed to save issue digests to {}", path, e);
+    }
+    if (recordsInFile > Math.max((long) size * 2, MIN_RECORDS_BEFORE_COMPACTION)) {
+      compact(path);
+    }
+  }
+
+  private static long fileSize(final Path path) {
+    try {
+      return Files.size(path);
+    } catch (IOException e) {
+      return -1;
+    }
+  }
+
+  private void compact(final Path path) {
+    final Path compacted = path.resolveSibling(path.getFileName() + ".tmp");
+    try {
+      if (appender != null) {
+        appender.close();
+        appender = null;
+      }
+      try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+          Files.newOutputStream(compacted), RECORD_BYTES * 4096))) {
+        for (int i = 0; i < issueIds.length; i++) {
+          if (issueIds[i] != 0) {
+            out.writeLong(issueIds[i]);
+            out.writeInt(digests[i]);
+          }
+        }
+      }
+      Files.move(compacted, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      recordsInFile = size;
+    } catch (IOException e) {
+      log.warn("Failed to compact issue digests in {}", path, e);
+    }
+  }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2026 Practice Insight Pty Ltd. All Rights Reserved.
+ */
+
+package io.wisetime.connector.jira;
+
+import static io.wisetime.connector.jira.JiraDao.Issue;
+
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A Bloom filter of the keys of all Jira issues, to tell without a database query that a tag doesn't refer to an
+ * issue. A key that was added is always reported as possibly known; about one in a hundred unknown keys is too.
+ *
+ * The filter is sized for twice the number of issues when it is built. It should be rebuilt once it holds more keys
+ * than that, as its false positive rate then rises quickly.
+ */
+class IssueKeyFilter {
+
+  private static final Logger log = LoggerFactory.getLogger(IssueKeyFilter.class);
+  private static final double FALSE_POSITIVE_RATE = 0.01;
+
+  private final BloomFilter<CharSequence> keys;
+  private final long expectedKeys;
+  // Highest issue ID added, issues with greater IDs were created since
+  private final AtomicLong maxIssueId;
+  private volatile boolean modified = false;
+  // Whether keys of issues at or below the saved max ID were added since the last save, which a restart can't recover
+  private volatile boolean olderKeysUnsaved = false;
+
+  private IssueKeyFilter(final BloomFilter<CharSequence> keys, final long expectedKeys, final long maxIssueId) {
+    this.keys = keys;
+    this.expectedKeys = expectedKeys;
+    this.maxIssueId = new AtomicLong(maxIssueId);
+  }
+
+  static IssueKeyFilter create(final long expectedKeys) {
+    return new IssueKeyFilter(
+        BloomFilter.create(Funnels.stringFunnel(StandardCharsets.UTF_8), expectedKeys, FALSE_POSITIVE_RATE),
+        expectedKeys,
+        0
+    );
+  }
+
+  /**
+   * Reads a filter that was saved with {@link #save(Path)}.
+   *
+   * @return empty if there is no saved filter or it can't be read
+   */
+  static Optional<IssueKeyFilter> load(final Path file) {
+    if (!Files.exists(file)) {
+      return Optional.empty();
+    }
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+      final long expectedKeys = in.readLong();
+      final long maxIssueId = in.readLong();
+      final BloomFilter<CharSequence> keys = BloomFilter.readFrom(in, Funnels.stringFunnel(StandardCharsets.UTF_8));
+      log.info("Loaded filter of about {} issue keys from {}", keys.approximateElementCount(), file);
+      return Optional.of(new IssueKeyFilter(keys, expectedKeys, maxIssueId));
+    } catch (IOException | RuntimeException e) {
+      log.warn("Failed to read issue key filter from {}, it will be rebuilt", file, e);
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Adds the keys of the issues. Safe to call concurrently with other calls.
+   */
+  void putAll(final Collection<Issue> issues) {
+    for (Issue issue : issues) {
+      // Keys that were added before don't change the filter
+      if (keys.put(issue.getKey())) {
+        modified = true;
+        if (issue.getId() <= maxIssueId.get()) {
+          olderKeysUnsaved = true;
+        }
+      }
+      maxIssueId.accumulateAndGet(issue.getId(), Math::max);
+    }
+  }
+
+  /**
+   * @return true if keys were added that a restart would not find again by scanning for issues above
+   * {@link #maxIssueId()}, such as the new key of a moved issue, and the filter was not saved since
+   */
+  boolean hasUnsavedOlderKeys() {
+    return olderKeysUnsaved;
+  }
+
+  /**
+   * @return false if the issue key was definitely never added
+   */
+  boolean mightContain(final String issueKey) {
+    return keys.mightContain(issueKey);
+  }
+
+  long maxIssueId() {
+    return maxIssueId.get();
+  }
+
+  /**
+   * @return true if the filter holds more keys than it was sized for
+   */
+  boolean needsRebuild() {
+    return keys.approximateElementCount() > expectedKeys;
+  }
+
+  /**
+   * Writes the filter to disk if keys were added since it was last saved.
+   */
+  synchronized void save(final Path file) {
+    if (!modified) {
+      return;
+    }
+    modified = false;
+    final boolean hadOlderKeysUnsaved = olderKeysUnsaved;
+    olderKeysUnsaved = false;
+    final Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+    try {
+      try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+        // Keys added while writing may be missed, they mark the filter modified again and are saved next time
+        out.writeLong(expectedKeys);
+        out.writeLong(maxIssueId.get());
+        keys.writeTo(out);
+      }
+      Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      modified = true;
+      if (hadOlderKeysUnsaved) {
+        olderKeysUnsaved = true;
+      }
+      log.warn("Failed to save issue key filter to {}", file, e);
+    }
+  }
+}
@@ -6,16 +6,25 @@ package io.wisetime.connector.jira;
 
 import static io.wisetime.connector.jira.ConnectorLauncher.JiraConnectorConfigKey;
 import static io.wisetime.connector.jira.JiraDao.Issue;
+import static io.wisetime.connector.jira.JiraDao.IssueKey;
+import static io.wisetime.connector.jira.JiraDao.IssueLookup;
 import static io.wisetime.connector.jira.JiraDao.Worklog;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.Lists;
-import com.vdurmont.emoji.EmojiParser;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.Striped;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import io.wisetime.connector.ConnectorModule;
 import io.wisetime.connector.WiseTimeConnector;
 import io.wisetime.connector.api_client.ApiClient;
 import io.wisetime.connector.api_client.PostResult;
+import io.wisetime.connector.config.ConnectorConfigKey;
 import io.wisetime.connector.config.RuntimeConfig;
 import io.wisetime.connector.datastore.ConnectorStore;
 import io.wisetime.connector.template.TemplateFormatter;
@@ -28,16 +37,35 @@ import io.wisetime.generated.connect.TimeGroup;
 import io.wisetime.generated.connect.UpsertTagRequest;
 import io.wisetime.generated.connect.User;
 import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
 import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import javax.inject.Inject;
+import lombok.Getter;
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
@@ -52,16 +80,69 @@ public class JiraConnector implements WiseTimeConnector {
 
   private static final Logger log = LoggerFactory.getLogger(WiseTimeConnector.class);
   private static final String LAST_SYNCED_ISSUE_KEY = "last-synced-issue-id";
+  // Projects synced with their own last synced issue ID, and the project filter of the single pass sync
+  private static final String PROJECT_SYNC_STARTED_KEY = "project-sync-started";
+  private static final String GLOBAL_SYNC_PROJECTS_KEY = "global-sync-projects";
   private static final String LAST_REFRESHED_ISSUE_KEY = "last-refreshed-issue-id";
+  // Number of completed passes of the refresh over all issues
+  private static final String REFRESH_PASSES_KEY = "refresh-passes";
+  // Every this many passes, the refresh upserts unchanged tags as well, to restore tags edited or deleted in WiseTime
+  private static final int FORCED_REFRESH_PASSES = 4;
+  // Full precision, as databases such as Postgres keep update times to the microsecond
+  private static final String LAST_REFRESHED_UPDATED_KEY = "last-refreshed-updated";
+  private static final String LAST_REFRESHED_UPDATED_MILLIS_KEY = "last-refreshed-updated-millis";
+  private static final String LAST_REFRESHED_UPDATED_ISSUE_KEY = "last-refreshed-updated-issue-id";
+  private static final String LAST_DELETION_CHECKED_ISSUE_KEY = "last-deletion-checked-issue-id";
+  // Synced issue IDs checked for deletion per query, and queries per slow loop run
+  private static final int DELETION_CHECK_BATCH_SIZE = 1000;
+  private static final int DELETION_CHECK_BATCHES_PER_RUN = 100;
+  // The cached issue count is kept up to date from sync progress, and corrected by a full count this often
+  private static final Duration ISSUE_RECOUNT_INTERVAL = Duration.ofHours(24);
+  // How long tags to delete are collected before they are deleted together, and the longest wait between retries
+  private static final Duration TAG_DELETION_LINGER = Duration.ofSeconds(1);
+  private static final Duration TAG_DELETION_MAX_BACKOFF = Duration.ofMinutes(5);
+  private static final String ISSUE_KEY_FILTER_FILE = "issue-keys.bloom";
+  private static final long MIN_ISSUE_KEY_FILTER_SIZE = 100_000;
+  private static final int ISSUE_KEY_SCAN_BATCH_SIZE = 1000;
+  // Most posts of time committed in one transaction
+  private static final int MAX_POST_TIME_GROUP_SIZE = 100;
 
   private int tagSyncIntervalMinutes;
   private ApiClient apiClient;
   private ConnectorStore connectorStore;
   private TemplateFormatter templateFormatter;
+  private IssueDigestStore issueDigestStore;
+  private PostedTimeLedger postedTimeLedger;
+  private TagDeletionQueue tagDeletionQueue;
+  private MetricsEndpoint metricsEndpoint;
+  // Jira issue IDs by issue key, of issues seen by the sync and refresh
+  private Cache<String, Long> issueIdsByKey;
+  // The key each cached issue ID is cached under, to tell when an issue has moved
+  private Cache<Long, String> issueKeysById;
+  // Null until the filter of all issue keys is ready, or if it is disabled
+  private volatile IssueKeyFilter issueKeyFilter;
+  // Filter being built, that also receives the keys added in the meantime
+  private volatile IssueKeyFilter rebuildingIssueKeyFilter;
+  // Null if the tag upsert batch size is fixed
+  private AdaptiveBatchSizer tagUpsertBatchSizer;
+  // Null unless tags of deleted issues are to be deleted
+  private SyncedIssueIndex syncedIssueIndex;
+  // Null unless posts of time are committed in groups
+  private GroupCommitter postTimeCommitter;
+  // Projects whose sync failed, by project key
+  private final Map<String, ProjectSyncPause> projectSyncPauses = new ConcurrentHashMap<>();
+  // Serialises concurrent posts of time to the same issue
+  private final Striped<Lock> issueLocks = Striped.lock(64);
+  // Number of issues within the project keys filter, negative until counted
+  private final AtomicLong issueCount = new AtomicLong(-1);
+  private volatile Instant issueCountedAt = Instant.EPOCH;
 
   @Inject
   private JiraDao jiraDao;
 
+  @Inject
+  private ConnectorMetrics metrics;
+
   @Override
   public String getConnectorType() {
     return "wisetime-jira-connector";
@@ -73,13 +154,56 @@ public class JiraConnector implements WiseTimeConnector {
         "Jira Database schema is unsupported by this connector");
 
     tagSyncIntervalMinutes = connectorModule.getIntervalConfig().getTagSlowLoopIntervalMinutes();
-    apiClient = connectorModule.getApiClient();
+    apiClient = metrics.timed(ApiClient.class, "wisetime_api", connectorModule.getApiClient());
     connectorStore = connectorModule.getConnectorStore();
     templateFormatter = new TemplateFormatter(
         TemplateFormatterConfig.builder()
             .withTemplatePath("classpath:jira-template.ftl")
             .build()
     );
+    issueDigestStore = new IssueDigestStore(dataFile("issue-digests.bin"));
+    postedTimeLedger = new PostedTimeLedger(dataFile("posted-time-groups.bin"), postedTimeRetention());
+    if (tagDeletionQueue != null) {
+      tagDeletionQueue.shutdown();
+    }
+    tagDeletionQueue = new TagDeletionQueue(apiClient, dataFile("pending-tag-deletions.bin"),
+        TAG_DELETION_LINGER, TAG_DELETION_MAX_BACKOFF);
+    metrics.registerGauge("pending_tag_deletions", tagDeletionQueue::size);
+    jiraDao.registerPoolMetrics(metrics);
+    if (metricsEndpoint != null) {
+      metricsEndpoint.stop();
+    }
+    metricsEndpoint = startMetricsEndpoint().orElse(null);
+    issueIdsByKey = CacheBuilder.newBuilder()
+        .maximumSize(issueIdCacheSize())
+        .build();
+    issueKeysById = CacheBuilder.newBuilder()
+        .maximumSize(issueIdCacheSize())
+        .build();
+    issueKeyFilter = null;
+    tagUpsertBatchSizer = RuntimeConfig.getInt(JiraConnectorConfigKey.TAG_UPSERT_BATCH_SIZE_MAX)
+        .map(maxBatchSize -> new AdaptiveBatchSizer(
+            RuntimeConfig.getInt(JiraConnectorConfigKey.TAG_UPSERT_BATCH_SIZE_MIN).orElse(10),
+            maxBatchSize,
+            configuredTagUpsertBatchSize()))
+        .orElse(null);
+    metrics.registerGauge("tag_upsert_batch_size", this::tagUpsertBatchSize);
+    resetIssueCount();
+    postTimeCommitter = postTimeGroupCommitMillis()
+        .map(lingerMillis -> new GroupCommitter(
+            jiraDao::asTransactionWithSavepoints, Duration.ofMillis(lingerMillis), MAX_POST_TIME_GROUP_SIZE))
+        .orElse(null);
+    syncedIssueIndex = null;
+    if (tagDeleteRemovedIssues()) {
+      final Optional<Path> bitmapFile = dataFile("synced-issue-ids.bin");
+      if (bitmapFile.isPresent()) {
+        syncedIssueIndex = new SyncedIssueIndex(bitmapFile.get(), dataFile("synced-issue-keys.bin").get());
+        metrics.registerGauge("synced_issue_ids", syncedIssueIndex::size);
+      } else {
+        log.warn("TAG_DELETE_REMOVED_ISSUES requires DATA_DIR to be configured, "
+            + "tags of deleted issues won't be deleted");
+      }
+    }
   }
 
   /**
@@ -90,16 +214,40 @@ public class JiraConnector implements WiseTimeConnector {
    */
   @Override
   public void performTagUpdate() {
-    syncNewIssues();
+    try {
+      if (issueKeyFilterEnabled()) {
+        prepareIssueKeyFilter();
+      }
+      syncNewIssues();
+    } finally {
+      saveSyncedIssueIndex();
+      saveIssueKeyFilter();
+    }
   }
 
   /**
    * Sends a batch of already synced issues to WiseTime to maintain freshness of existing tags.
    * Mitigates effect of renamed or missed tags.
+   *
+   * In incremental refresh mode, all issues updated since the last run are sent first. The batch of already synced
+   * issues is then sized for a slower full refresh, as a safety net.
+   *
+   * If enabled, also deletes the tags of a range of synced issues that no longer exist in Jira.
    */
   @Override
   public void performTagUpdateSlowLoop() {
-    refreshIssues(tagRefreshBatchSize());
+    try {
+      if (tagRefreshMode() == TagRefreshMode.INCREMENTAL) {
+        refreshUpdatedIssues(tagUpsertBatchSize());
+      }
+      refreshIssues(tagRefreshBatchSize());
+      if (syncedIssueIndex != null) {
+        deleteTagsOfRemovedIssues();
+      }
+    } finally {
+      saveSyncedIssueIndex();
+      saveIssueKeyFilter();
+    }
   }
 
   @Override
@@ -113,8 +261,21 @@ public class JiraConnector implements WiseTimeConnector {
    */
   @Override
   public PostResult postTime(final TimeGroup timeGroup) {
+    if (postTimeCommitter != null) {
+      return postTimeCommitter.participate(() -> postTimeGroup(timeGroup));
+    }
+    return postTimeGroup(timeGroup);
+  }
+
+  private PostResult postTimeGroup(final TimeGroup timeGroup) {
     log.info("Posted time received: {}", timeGroup.getGroupId());
 
+    if (timeGroup.getGroupId() != null && postedTimeLedger.contains(timeGroup.getGroupId())) {
+      log.info("Time group {} was already posted to Jira", timeGroup.getGroupId());
+      return PostResult.SUCCESS()
+          .withMessage("Time group was already posted to Jira");
+    }
+
     if (timeGroup.getTags().isEmpty()) {
       return PostResult.SUCCESS()
           .withMessage("Time group has no tags. There is nothing to post to Jira.");
@@ -152,45 +313,20 @@ public class JiraConnector implements WiseTimeConnector {
         .calculate();
 
     try {
-      List<Tag> tagsMissingInJira = new ArrayList<>();
-      List<Issue> issuesToPostTo = relevantTags.stream()
-          .map(tag -> {
-            final Optional<Issue> issue = jiraDao.findIssueByTagName(tag.getName());
-            if (!issue.isPresent()) {
-              tagsMissingInJira.add(tag);
-            }
-            return issue;
-          })
-          .filter(Optional::isPresent)
-          .map(Optional::get)
-          .collect(Collectors.toList());
-
-      if (!tagsMissingInJira.isEmpty()) {
-        log.warn("Couldn't find all tags in Jira");
-        tagsMissingInJira.forEach(tag -> {
-          try {
-            // the tag will be deleted, but the user still needs to manually repost and existing time rows need
-            // to be fixed
-            apiClient.tagDelete(new DeleteTagRequest().name(tag.getName()));
-          } catch (IOException e) {
-            log.error("Error deleting tag: {}", tag.toString(), e);
-            // connect-api-server down: Throw general exception to retry
-            throw new RuntimeException(e);
-          }
-        });
-        throw new IssueNotFoundException("Jira issue was not found for next tags: "
-            + tagsMissingInJira.stream()
-            .map(Tag::getName)
-            .collect(Collectors.joining(", ")));
+      final List<String> tagNames = relevantTags.stream().map(Tag::getName).collect(Collectors.toList());
+      List<Issue> postedIssues;
+      try {
+        postedIssues = postToIssues(timeGroup, tagNames, author.get(), activityStartTime.get(), workedTime, true);
+      } catch (OutdatedIssueIdsException e) {
+        log.info("Cached IDs of Jira issues were outdated, looking up the issues of time {} again",
+            timeGroup.getGroupId());
+        postedIssues = postToIssues(timeGroup, tagNames, author.get(), activityStartTime.get(), workedTime, false);
       }
-      jiraDao.asTransaction(() -> {
-        issuesToPostTo.forEach(issue -> {
-          jiraDao.updateIssueTimeSpent(issue.getId(), issue.getTimeSpent() + workedTime);
-          final Worklog worklog = buildWorklog(issue, timeGroup, author.get(), activityStartTime.get(), workedTime);
-          jiraDao.createWorklog(worklog);
-          log.info("Posted time {} to Jira issue {}", timeGroup.getGroupId(), issue.getKey());
-        });
-      });
+      if (timeGroup.getGroupId() != null) {
+        postedTimeLedger.add(timeGroup.getGroupId());
+      }
+      postedIssues.forEach(issue ->
+          log.info("Posted time {} to Jira issue {}", timeGroup.getGroupId(), issue.getKey()));
     } catch (IssueNotFoundException e) {
       log.warn("Can't post time to Jira: " + e.getMessage());
       return PostResult.PERMANENT_FAILURE()
@@ -205,6 +341,114 @@ public class JiraConnector implements WiseTimeConnector {
     return PostResult.SUCCESS();
   }
 
+  /**
+   * Adds the worked time to each issue of the tags, and creates a worklog for it.
+   *
+   * @param useIssueIdCache whether issue IDs may be taken from the cache rather than looked up in the database
+   * @return the issues that time was posted to
+   * @throws OutdatedIssueIdsException if a cached issue ID no longer exists, in which case nothing was written
+   */
+  private List<Issue> postToIssues(final TimeGroup timeGroup, final List<String> tagNames, final String author,
+                                   final Instant activityStartTime, final long workedTime,
+                                   final boolean useIssueIdCache) {
+    final IssueLookup issueLookup = findIssues(tagNames, useIssueIdCache);
+    final List<String> tagsMissingInJira = issueLookup.getMissingTagNames();
+    final List<Issue> issuesToPostTo = new ArrayList<>(issueLookup.getIssues().values());
+
+    if (!tagsMissingInJira.isEmpty()) {
+      log.warn("Couldn't find all tags in Jira");
+      // the tags will be deleted in the background, but the user still needs to manually repost and existing
+      // time rows need to be fixed
+      tagDeletionQueue.addAll(tagsMissingInJira);
+      throw new IssueNotFoundException("Jira issue was not found for next tags: "
+          + String.join(", ", tagsMissingInJira));
+    }
+    // Sorted by issue ID, so that concurrent posts lock issue rows in the same order
+    final Map<Long, Long> workedTimeByIssueId = new TreeMap<>();
+    final List<Worklog> worklogs = new ArrayList<>();
+    // The worklog body is the same for every issue of the time group
+    final String worklogBody = worklogBody(timeGroup);
+    issuesToPostTo.forEach(issue -> {
+      workedTimeByIssueId.merge(issue.getId(), workedTime, Long::sum);
+      worklogs.add(buildWorklog(issue, worklogBody, author, activityStartTime, workedTime));
+    });
+    // Posts to the same issues wait for each other here rather than holding a database connection while waiting
+    // for row locks. Posts to other issues go ahead in parallel.
+    final Iterable<Lock> locks = issueLocks.bulkGet(workedTimeByIssueId.keySet());
+    if (postTimeCommitter != null) {
+      // The holder of a lock may be waiting for this post to join its group
+      postTimeCommitter.standAside(() -> locks.forEach(Lock::lock));
+    } else {
+      locks.forEach(Lock::lock);
+    }
+    try {
+      // Each of the two batches is a single round trip to the database
+      final Runnable write = () -> {
+        final Set<Long> missingIssueIds = jiraDao.addIssuesTimeSpent(workedTimeByIssueId);
+        if (!missingIssueIds.isEmpty()) {
+          // Rolls back the transaction, so that no worklogs are created for issues that don't exist
+          throw new OutdatedIssueIdsException(missingIssueIds);
+        }
+        jiraDao.createWorklogs(worklogs);
+      };
+      if (postTimeCommitter != null) {
+        postTimeCommitter.apply(write);
+      } else {
+        jiraDao.asTransaction(write);
+      }
+    } catch (OutdatedIssueIdsException e) {
+      issuesToPostTo.stream()
+          .filter(issue -> e.getIssueIds().contains(issue.getId()))
+          .forEach(issue -> {
+            issueIdsByKey.invalidate(issue.getKey());
+            issueKeysById.invalidate(issue.getId());
+          });
+      throw e;
+    } finally {
+      locks.forEach(Lock::unlock);
+    }
+    return issuesToPostTo;
+  }
+
+  /**
+   * Finds the issues of the tags, taking their IDs from the cache where possible. Only the issue ID and key are set
+   * on issues found in the cache.
+   */
+  private IssueLookup findIssues(final List<String> tagNames, final boolean useIssueIdCache) {
+    final IssueLookup lookup = new IssueLookup();
+    final List<String> uncachedTagNames = new ArrayList<>();
+    for (String tagName : tagNames) {
+      final Long issueId = useIssueIdCache ? issueIdsByKey.getIfPresent(tagName) : null;
+      final Optional<IssueKey> issueKey = IssueKey.fromTagName(tagName);
+      if (issueId != null && issueKey.isPresent()) {
+        lookup.getIssues().put(tagName, new Issue()
+            .setId(issueId)
+            .setProjectKey(issueKey.get().getProjectKey())
+            .setIssueNumber(String.valueOf(issueKey.get().getIssueNumber())));
+      } else {
+        uncachedTagNames.add(tagName);
+      }
+    }
+    final IssueKeyFilter knownIssueKeys = issueKeyFilter;
+    if (knownIssueKeys != null) {
+      // Tags of keys that were never synced don't refer to an issue, there is no need to look them up
+      uncachedTagNames.removeIf(tagName -> {
+        final boolean unknown = !knownIssueKeys.mightContain(tagName);
+        if (unknown) {
+          lookup.getMissingTagNames().add(tagName);
+        }
+        return unknown;
+      });
+    }
+    if (!uncachedTagNames.isEmpty()) {
+      final IssueLookup uncachedLookup = jiraDao.findIssuesByTagNames(uncachedTagNames);
+      uncachedLookup.getIssues().values().forEach(this::cacheIssueId);
+      lookup.getIssues().putAll(uncachedLookup.getIssues());
+      lookup.getMissingTagNames().addAll(uncachedLookup.getMissingTagNames());
+    }
+    return lookup;
+  }
+
   @Override
   public boolean isConnectorHealthy() {
     return jiraDao.pingDb();
@@ -212,6 +456,10 @@ public class JiraConnector implements WiseTimeConnector {
 
   @Override
   public void shutdown() {
+    if (metricsEndpoint != null) {
+      metricsEndpoint.stop();
+    }
+    tagDeletionQueue.shutdown();
     jiraDao.shutdown();
   }
 
@@ -220,39 +468,261 @@ public class JiraConnector implements WiseTimeConnector {
    */
   @VisibleForTesting
   void syncNewIssues() {
+    final String[] projectKeys = getProjectKeysFilter();
+    final int parallelProjects = tagSyncParallelProjects();
+    if (parallelProjects > 0 && projectKeys.length > 0) {
+      syncNewIssuesByProject(projectKeys, parallelProjects);
+      return;
+    }
+    // Remembered so that a later switch to syncing projects on their own knows which projects are synced
+    final String globalSyncProjects = String.join(",", projectKeys);
+    if (!connectorStore.getString(GLOBAL_SYNC_PROJECTS_KEY).equals(Optional.of(globalSyncProjects))) {
+      connectorStore.putString(GLOBAL_SYNC_PROJECTS_KEY, globalSyncProjects);
+    }
+    syncNewIssues(LAST_SYNCED_ISSUE_KEY, projectKeys);
+  }
+
+  /**
+   * Drain all unsynced issues of each project on its own, with a last synced issue ID per project. Up to
+   * {@code parallelProjects} projects are synced at the same time, so that a large project doesn't hold up the others.
+   *
+   * A project whose sync fails is paused with exponential backoff while the other projects carry on.
+   */
+  private void syncNewIssuesByProject(final String[] projectKeys, final int parallelProjects) {
+    startProjectSyncs(projectKeys);
+
+    final ExecutorService projectExecutor = Executors.newFixedThreadPool(
+        Math.min(parallelProjects, projectKeys.length),
+        new ThreadFactoryBuilder()
+            .setNameFormat("jira-project-sync-%d")
+            .setDaemon(true)
+            .build());
+    final Map<String, Future<?>> projectSyncs = new LinkedHashMap<>();
+    try {
+      for (String projectKey : projectKeys) {
+        final ProjectSyncPause pause = projectSyncPauses.get(projectKey);
+        if (pause != null && Instant.now().isBefore(pause.getPausedUntil())) {
+          log.info("Skipping sync of project {} until {} after {} consecutive failures",
+              projectKey, pause.getPausedUntil(), pause.getFailures());
+          continue;
+        }
+        projectSyncs.put(projectKey,
+            projectExecutor.submit(() -> syncNewIssues(lastSyncedIssueKey(projectKey), projectKey)));
+      }
+
+      final List<String> failedProjects = new ArrayList<>();
+      RuntimeException firstFailure = null;
+      for (Map.Entry<String, Future<?>> projectSync : projectSyncs.entrySet()) {
+        try {
+          projectSync.getValue().get();
+          projectSyncPauses.remove(projectSync.getKey());
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new RuntimeException("Interrupted while syncing projects", e);
+        } catch (ExecutionException e) {
+          final ProjectSyncPause pause = projectSyncPauses
+              .computeIfAbsent(projectSync.getKey(), key -> new ProjectSyncPause())
+              .recordFailure();
+          log.warn("Failed to sync project {}, pausing it until {}",
+              projectSync.getKey(), pause.getPausedUntil(), e.getCause());
+          failedProjects.add(projectSync.getKey());
+          if (firstFailure == null) {
+            firstFailure = new RuntimeException("Failed to sync projects " + failedProjects, e.getCause());
+          }
+        }
+      }
+      if (firstFailure != null) {
+        throw firstFailure;
+      }
+    } finally {
+      projectExecutor.shutdown();
+    }
+  }
+
+  private void syncNewIssues(final String lastSyncedIssueKey, final String... projectKeys) {
+    final int prefetchBatches = tagSyncPrefetchBatches();
+    final int upsertWorkers = tagUpsertWorkers();
+    if (prefetchBatches > 0 || upsertWorkers > 1 || tagSyncScan() == IssueScan.CURSOR) {
+      syncNewIssuesPipelined(lastSyncedIssueKey, projectKeys, Math.max(prefetchBatches, 1), upsertWorkers);
+      return;
+    }
     while (true) {
-      final long lastPreviouslySyncedIssueId = connectorStore.getLong(LAST_SYNCED_ISSUE_KEY).orElse(0L);
+      final long lastPreviouslySyncedIssueId = connectorStore.getLong(lastSyncedIssueKey).orElse(0L);
 
       final List<Issue> newIssues = jiraDao.findIssuesOrderedById(
           lastPreviouslySyncedIssueId,
           tagUpsertBatchSize(),
-          getProjectKeysFilter()
+          projectKeys
       );
 
       if (newIssues.isEmpty()) {
         log.info("No new tags found. Last issue ID synced: {}", lastPreviouslySyncedIssueId);
         return;
       }
+      logNewIssues(newIssues);
+      upsertWiseTimeTags(newIssues);
+      saveLastSyncedIssueId(lastSyncedIssueKey, newIssues);
+    }
+  }
 
-      log.info("Detected {} new {}: {}",
-          newIssues.size(),
-          newIssues.size() > 1 ? "tags" : "tag",
-          ellipsize(newIssues.stream().map(Issue::getKey).collect(Collectors.toList())));
+  /**
+   * Same as the serial sync, except that the next pages of issues are read from the Jira database while batches are
+   * being upserted to WiseTime, and up to {@code upsertWorkers} batches are upserted at the same time.
+   *
+   * The last synced issue ID only moves past a batch once that batch and all batches before it have been upserted,
+   * so that no issue is skipped if the connector stops halfway. The batch size is read again for every batch, so that
+   * an adaptive batch size takes effect during a long backfill.
+   */
+  private void syncNewIssuesPipelined(final String lastSyncedIssueKey, final String[] projectKeys,
+                                      final int prefetchBatches, final int upsertWorkers) {
+    final long lastPreviouslySyncedIssueId = connectorStore.getLong(lastSyncedIssueKey).orElse(0L);
 
-      upsertWiseTimeTags(newIssues);
+    final ExecutorService upsertExecutor = upsertWorkers > 1
+        ? Executors.newFixedThreadPool(upsertWorkers, new ThreadFactoryBuilder()
+            .setNameFormat("jira-tag-upsert-%d")
+            .setDaemon(true)
+            .build())
+        : MoreExecutors.newDirectExecutorService();
+    // Batches that were sent to WiseTime, in issue ID order
+    final Deque<Map.Entry<List<Issue>, Future<?>>> upsertsInFlight = new ArrayDeque<>();
 
-      final long lastSyncedIssueId = newIssues.get(newIssues.size() - 1).getId();
-      connectorStore.putLong(LAST_SYNCED_ISSUE_KEY, lastSyncedIssueId);
-      log.info("Last synced issue ID: {}", lastSyncedIssueId);
+    try (PrefetchingIssueReader reader = new PrefetchingIssueReader("jira-issue-prefetch", prefetchBatches,
+        issueBatchProducer(lastPreviouslySyncedIssueId, projectKeys))) {
+      List<Issue> newIssues = reader.nextBatch();
+      if (newIssues.isEmpty()) {
+        log.info("No new tags found. Last issue ID synced: {}", lastPreviouslySyncedIssueId);
+      }
+      while (!newIssues.isEmpty()) {
+        if (upsertsInFlight.size() >= upsertWorkers) {
+          awaitOldestUpsert(lastSyncedIssueKey, upsertsInFlight);
+        }
+        logNewIssues(newIssues);
+        final List<Issue> batch = newIssues;
+        upsertsInFlight.add(Maps.immutableEntry(batch, upsertExecutor.submit(() -> upsertWiseTimeTags(batch))));
+        newIssues = nextBatch(reader, lastSyncedIssueKey, upsertsInFlight);
+      }
+      while (!upsertsInFlight.isEmpty()) {
+        awaitOldestUpsert(lastSyncedIssueKey, upsertsInFlight);
+      }
+    } finally {
+      upsertExecutor.shutdown();
+    }
+  }
+
+  private PrefetchingIssueReader.IssueBatchProducer issueBatchProducer(final long startIdExclusive,
+                                                                      final String[] projectKeys) {
+    if (tagSyncScan() == IssueScan.CURSOR) {
+      return sink -> jiraDao.streamIssuesOrderedById(startIdExclusive, this::tagUpsertBatchSize, sink, projectKeys);
+    }
+    return sink -> {
+      List<Issue> page = jiraDao.findIssuesOrderedById(startIdExclusive, tagUpsertBatchSize(), projectKeys);
+      while (!page.isEmpty()) {
+        sink.accept(page);
+        page = jiraDao.findIssuesOrderedById(page.get(page.size() - 1).getId(), tagUpsertBatchSize(), projectKeys);
+      }
+    };
+  }
+
+  private List<Issue> nextBatch(final PrefetchingIssueReader reader, final String lastSyncedIssueKey,
+                                final Deque<Map.Entry<List<Issue>, Future<?>>> upsertsInFlight) {
+    try {
+      return reader.nextBatch();
+    } catch (RuntimeException e) {
+      // Keep the progress of batches that were already sent before giving up
+      while (!upsertsInFlight.isEmpty()) {
+        awaitOldestUpsert(lastSyncedIssueKey, upsertsInFlight);
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * Waits for the oldest batch in flight and saves its last issue ID as synced. Later batches are never saved before
+   * earlier ones.
+   */
+  private void awaitOldestUpsert(final String lastSyncedIssueKey,
+                                 final Deque<Map.Entry<List<Issue>, Future<?>>> upsertsInFlight) {
+    final Map.Entry<List<Issue>, Future<?>> oldest = upsertsInFlight.remove();
+    try {
+      oldest.getValue().get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted while upserting tags", e);
+    } catch (ExecutionException e) {
+      Throwables.throwIfUnchecked(e.getCause());
+      throw new RuntimeException(e.getCause());
+    }
+    saveLastSyncedIssueId(lastSyncedIssueKey, oldest.getKey());
+  }
+
+  private void logNewIssues(final List<Issue> newIssues) {
+    log.info("Detected {} new {}: {}",
+        newIssues.size(),
+        newIssues.size() > 1 ? "tags" : "tag",
+        ellipsize(newIssues.stream().map(Issue::getKey).collect(Collectors.toList())));
+  }
+
+  private void saveLastSyncedIssueId(final String lastSyncedIssueKey, final List<Issue> syncedIssues) {
+    final long lastSyncedIssueId = syncedIssues.get(syncedIssues.size() - 1).getId();
+    connectorStore.putLong(lastSyncedIssueKey, lastSyncedIssueId);
+    issueCount.getAndUpdate(count -> count < 0 ? count : count + syncedIssues.size());
+    log.info("Last synced issue ID: {}", lastSyncedIssueId);
+  }
+
+  /**
+   * Sets the starting point of projects that weren't synced on their own in the last run. Projects that the single
+   * pass sync covered start from its last synced issue ID. Projects that are new to the filter are backfilled from the
+   * first issue, including projects that were in the filter before, as their issues may have been skipped since.
+   */
+  private void startProjectSyncs(final String[] projectKeys) {
+    final String currentProjects = String.join(",", projectKeys);
+    final Optional<String> startedProjects = connectorStore.getString(PROJECT_SYNC_STARTED_KEY);
+    if (startedProjects.equals(Optional.of(currentProjects))) {
+      return;
     }
+    if (startedProjects.isPresent()) {
+      final Set<String> previousProjects = projectKeySet(startedProjects.get());
+      for (String projectKey : projectKeys) {
+        if (!previousProjects.contains(projectKey)) {
+          log.info("Project {} was added to the filter, syncing all of its issues", projectKey);
+          connectorStore.putLong(lastSyncedIssueKey(projectKey), 0L);
+        }
+      }
+    } else {
+      // Without a recorded filter, the single pass sync is taken to have covered all projects, as it did before
+      final Optional<Set<String>> globalSyncProjects = connectorStore.getString(GLOBAL_SYNC_PROJECTS_KEY)
+          .filter(StringUtils::isNotEmpty)
+          .map(JiraConnector::projectKeySet);
+      final long lastSyncedIssueId = connectorStore.getLong(LAST_SYNCED_ISSUE_KEY).orElse(0L);
+      for (String projectKey : projectKeys) {
+        if (globalSyncProjects.map(projects -> projects.contains(projectKey)).orElse(true)) {
+          connectorStore.putLong(lastSyncedIssueKey(projectKey), lastSyncedIssueId);
+        } else {
+          log.info("Project {} wasn't synced before, syncing all of its issues", projectKey);
+          connectorStore.putLong(lastSyncedIssueKey(projectKey), 0L);
+        }
+      }
+    }
+    connectorStore.putString(PROJECT_SYNC_STARTED_KEY, currentProjects);
+  }
+
+  private static Set<String> projectKeySet(final String projectKeys) {
+    return new HashSet<>(Arrays.asList(projectKeys.split(",")));
+  }
+
+  private static String lastSyncedIssueKey(final String projectKey) {
+    return LAST_SYNCED_ISSUE_KEY + "-" + projectKey;
   }
 
   /**
-   * Get one batch of issues and send to WiseTime to keep tags up to date
+   * Get one batch of issues and send to WiseTime to keep tags up to date. Issues whose tag hasn't changed since it was
+   * last upserted are skipped, except on every {@value #FORCED_REFRESH_PASSES}th pass over all issues. That pass
+   * upserts every tag, to restore tags that were edited or deleted in WiseTime.
    */
   @VisibleForTesting
   void refreshIssues(final int batchSize) {
     final long lastPreviouslyRefreshedIssueId = connectorStore.getLong(LAST_REFRESHED_ISSUE_KEY).orElse(0L);
+    final long refreshPasses = connectorStore.getLong(REFRESH_PASSES_KEY).orElse(0L);
 
     final List<Issue> refreshIssues = jiraDao.findIssuesOrderedById(
         lastPreviouslyRefreshedIssueId,
@@ -263,37 +733,254 @@ public class JiraConnector implements WiseTimeConnector {
     if (refreshIssues.isEmpty()) {
       // Start over the next time we are called
       connectorStore.putLong(LAST_REFRESHED_ISSUE_KEY, 0L);
+      connectorStore.putLong(REFRESH_PASSES_KEY, refreshPasses + 1);
       return;
     }
 
-    log.info("Refreshing {} {}: {}",
-        refreshIssues.size(),
-        refreshIssues.size() > 1 ? "tags" : "tag",
-        ellipsize(refreshIssues.stream().map(Issue::getKey).collect(Collectors.toList())));
-
-    upsertWiseTimeTags(refreshIssues);
+    refreshTags(refreshIssues, refreshPasses % FORCED_REFRESH_PASSES != 0);
 
     final long lastRefreshedIssueId = refreshIssues.get(refreshIssues.size() - 1).getId();
     connectorStore.putLong(LAST_REFRESHED_ISSUE_KEY, lastRefreshedIssueId);
   }
 
-  private void upsertWiseTimeTags(final List<Issue> issues) {
+  /**
+   * Send all issues that were updated in Jira since the last run to WiseTime. Progress is kept as the (updated, ID)
+   * position of the last refreshed issue. Issues whose tag hasn't changed since it was last upserted are skipped.
+   */
+  @VisibleForTesting
+  void refreshUpdatedIssues(final int batchSize) {
+    Instant lastRefreshedUpdated = connectorStore.getString(LAST_REFRESHED_UPDATED_KEY)
+        .map(Instant::parse)
+        // Saved by earlier versions, the issue at the position may be refreshed once more
+        .or(() -> connectorStore.getLong(LAST_REFRESHED_UPDATED_MILLIS_KEY).map(Instant::ofEpochMilli))
+        // Older updates are left to the full refresh. Going back a day covers clock and time zone differences
+        // between the connector and the database.
+        .orElseGet(() -> Instant.now().minus(1, ChronoUnit.DAYS));
+    long lastRefreshedIssueId = connectorStore.getLong(LAST_REFRESHED_UPDATED_ISSUE_KEY).orElse(0L);
+
+    while (true) {
+      final List<Issue> updatedIssues = jiraDao.findIssuesOrderedByUpdated(
+          lastRefreshedUpdated,
+          lastRefreshedIssueId,
+          batchSize,
+          getProjectKeysFilter()
+      );
+      if (updatedIssues.isEmpty()) {
+        log.info("No updated issues found since {}", lastRefreshedUpdated);
+        return;
+      }
+
+      refreshTags(updatedIssues, true);
+
+      final Issue lastRefreshedIssue = updatedIssues.get(updatedIssues.size() - 1);
+      lastRefreshedUpdated = lastRefreshedIssue.getUpdated();
+      lastRefreshedIssueId = lastRefreshedIssue.getId();
+      connectorStore.putString(LAST_REFRESHED_UPDATED_KEY, lastRefreshedUpdated.toString());
+      connectorStore.putLong(LAST_REFRESHED_UPDATED_ISSUE_KEY, lastRefreshedIssueId);
+    }
+  }
+
+  /**
+   * @param skipUnchanged whether to skip issues whose tag is the same as when it was last upserted
+   */
+  private void refreshTags(final List<Issue> refreshIssues, final boolean skipUnchanged) {
+    // The key of a moved issue changes
+    addIssueKeys(refreshIssues);
+    final Map<Long, UpsertTagRequest> changedTags = toUpsertTagRequests(refreshIssues);
+    if (skipUnchanged) {
+      changedTags.entrySet().removeIf(tag -> issueDigestStore.isUnchanged(tag.getKey(), tag.getValue()));
+    }
+
+    if (changedTags.isEmpty()) {
+      log.info("Skipped refreshing {} unchanged {}",
+          refreshIssues.size(),
+          refreshIssues.size() > 1 ? "tags" : "tag");
+    } else {
+      log.info("Refreshing {} {}: {} ({} unchanged)",
+          changedTags.size(),
+          changedTags.size() > 1 ? "tags" : "tag",
+          ellipsize(changedTags.values().stream().map(UpsertTagRequest::getName).collect(Collectors.toList())),
+          refreshIssues.size() - changedTags.size());
+
+      upsertWiseTimeTags(changedTags);
+    }
+    recordSyncedIssues(refreshIssues);
+  }
+
+  /**
+   * Checks a range of synced issues against the Jira database, and deletes the tags of those that no longer exist.
+   * Each run continues from where the previous one stopped, and starts over once all synced issues were checked.
+   */
+  @VisibleForTesting
+  void deleteTagsOfRemovedIssues() {
+    long lastCheckedIssueId = connectorStore.getLong(LAST_DELETION_CHECKED_ISSUE_KEY).orElse(0L);
+    final Set<Long> removedIssueIds = new LinkedHashSet<>();
+
+    for (int i = 0; i < DELETION_CHECK_BATCHES_PER_RUN; i++) {
+      final List<Long> syncedIssueIds = syncedIssueIndex.syncedIdsAfter(lastCheckedIssueId, DELETION_CHECK_BATCH_SIZE);
+      if (syncedIssueIds.isEmpty()) {
+        // Start over the next time we are called
+        lastCheckedIssueId = 0;
+        break;
+      }
+      final Set<Long> existingIssueIds = jiraDao.findExistingIssueIds(syncedIssueIds);
+      syncedIssueIds.stream()
+          .filter(issueId -> !existingIssueIds.contains(issueId))
+          .forEach(removedIssueIds::add);
+      lastCheckedIssueId = syncedIssueIds.get(syncedIssueIds.size() - 1);
+    }
+
+    if (!removedIssueIds.isEmpty()) {
+      deleteWiseTimeTags(removedIssueIds);
+    }
+    connectorStore.putLong(LAST_DELETION_CHECKED_ISSUE_KEY, lastCheckedIssueId);
+  }
+
+  private void deleteWiseTimeTags(final Set<Long> removedIssueIds) {
+    final Map<Long, String> tagNames = syncedIssueIndex.findKeys(removedIssueIds);
+    issueIdsByKey.invalidateAll(tagNames.values());
+    issueKeysById.invalidateAll(tagNames.keySet());
+    log.info("Deleting {} {} of deleted Jira issues: {}",
+        tagNames.size(),
+        tagNames.size() > 1 ? "tags" : "tag",
+        ellipsize(new ArrayList<>(tagNames.values())));
+
+    final List<Long> deletedIssueIds = new ArrayList<>();
     try {
-      final List<UpsertTagRequest> upsertRequests = issues
-          .stream()
-          .map(issue -> {
-            UpsertTagRequest request = issue.toUpsertTagRequest(tagUpsertPath());
-            RuntimeConfig.getString(JiraConnectorConfigKey.JIRA_ISSUE_URL_PREFIX)
-                .ifPresent(urlPrefix -> request.url(urlPrefix + issue.getKey()));
-            return request;
-          })
-          .collect(Collectors.toList());
-      apiClient.tagUpsertBatch(upsertRequests);
+      for (Long issueId : removedIssueIds) {
+        final String tagName = tagNames.get(issueId);
+        if (tagName == null) {
+          log.warn("Tag name of deleted issue {} is unknown, its tag can't be deleted", issueId);
+        } else {
+          apiClient.tagDelete(new DeleteTagRequest().name(tagName));
+        }
+        deletedIssueIds.add(issueId);
+      }
     } catch (IOException e) {
       throw new RuntimeException(e);
+    } finally {
+      syncedIssueIndex.removeAll(deletedIssueIds);
+    }
+  }
+
+  private void upsertWiseTimeTags(final List<Issue> issues) {
+    // Before the tags exist, so that time posted to them is never rejected
+    addIssueKeys(issues);
+    upsertWiseTimeTags(toUpsertTagRequests(issues));
+    recordSyncedIssues(issues);
+  }
+
+  /**
+   * Makes the filter of issue keys ready for posting time. A saved filter is brought up to date with the issues
+   * created since it was saved. The filter is built from a scan of all issues if there is no saved filter, or if it
+   * holds more keys than it was sized for.
+   */
+  @VisibleForTesting
+  void prepareIssueKeyFilter() {
+    if (issueKeyFilter != null && !issueKeyFilter.needsRebuild()) {
+      return;
+    }
+    final Optional<IssueKeyFilter> savedFilter = issueKeyFilter == null
+        ? dataFile(ISSUE_KEY_FILTER_FILE).flatMap(IssueKeyFilter::load).filter(filter -> !filter.needsRebuild())
+        : Optional.empty();
+    final IssueKeyFilter filter = savedFilter
+        .orElseGet(() -> IssueKeyFilter.create(Math.max(jiraDao.issueCount() * 2, MIN_ISSUE_KEY_FILTER_SIZE)));
+    log.info("{} filter of issue keys", savedFilter.isPresent() ? "Updating" : "Building");
+    rebuildingIssueKeyFilter = filter;
+    try {
+      jiraDao.streamIssuesOrderedById(filter.maxIssueId(), () -> ISSUE_KEY_SCAN_BATCH_SIZE, filter::putAll);
+      issueKeyFilter = filter;
+    } finally {
+      rebuildingIssueKeyFilter = null;
+    }
+  }
+
+  private void addIssueKeys(final List<Issue> issues) {
+    final IssueKeyFilter filter = issueKeyFilter;
+    if (filter != null) {
+      filter.putAll(issues);
+      if (filter.hasUnsavedOlderKeys()) {
+        // A saved filter is only brought up to date with newer issues, so these keys would be lost on a restart
+        saveIssueKeyFilter();
+      }
+    }
+    final IssueKeyFilter rebuildingFilter = rebuildingIssueKeyFilter;
+    if (rebuildingFilter != null) {
+      rebuildingFilter.putAll(issues);
     }
   }
 
+  private void saveIssueKeyFilter() {
+    final IssueKeyFilter filter = issueKeyFilter;
+    if (filter != null) {
+      dataFile(ISSUE_KEY_FILTER_FILE).ifPresent(filter::save);
+    }
+  }
+
+  @VisibleForTesting
+  void invalidateIssueCaches() {
+    issueIdsByKey.invalidateAll();
+    issueKeysById.invalidateAll();
+    issueKeyFilter = null;
+  }
+
+  /**
+   * Caches the ID of the issue by its key. If the issue was cached under another key, it has moved, and the old key
+   * is evicted so that time posted to it is looked up in the database again. The issue key filter can't forget the
+   * old key, so it still lets those lookups through.
+   */
+  private void cacheIssueId(final Issue issue) {
+    final String previousKey = issueKeysById.asMap().put(issue.getId(), issue.getKey());
+    if (previousKey != null && !previousKey.equals(issue.getKey())) {
+      issueIdsByKey.asMap().remove(previousKey, issue.getId());
+    }
+    issueIdsByKey.put(issue.getKey(), issue.getId());
+  }
+
+  private void recordSyncedIssues(final List<Issue> issues) {
+    issues.forEach(this::cacheIssueId);
+    if (syncedIssueIndex != null) {
+      syncedIssueIndex.addAll(issues);
+    }
+  }
+
+  private void saveSyncedIssueIndex() {
+    if (syncedIssueIndex != null) {
+      syncedIssueIndex.save();
+    }
+  }
+
+  private void upsertWiseTimeTags(final Map<Long, UpsertTagRequest> upsertRequests) {
+    final long startNanos = System.nanoTime();
+    try {
+      apiClient.tagUpsertBatch(new ArrayList<>(upsertRequests.values()));
+    } catch (IOException | RuntimeException e) {
+      if (tagUpsertBatchSizer != null) {
+        tagUpsertBatchSizer.onFailure();
+      }
+      Throwables.throwIfUnchecked(e);
+      throw new RuntimeException(e);
+    }
+    if (tagUpsertBatchSizer != null) {
+      tagUpsertBatchSizer.onSuccess(upsertRequests.size(), System.nanoTime() - startNanos);
+    }
+    issueDigestStore.putAll(upsertRequests);
+  }
+
+  /**
+   * @return tag upsert requests keyed by issue ID, in the same order as the issues
+   */
+  private Map<Long, UpsertTagRequest> toUpsertTagRequests(final List<Issue> issues) {
+    final Map<Long, UpsertTagRequest> upsertRequests = new LinkedHashMap<>();
+    issues.forEach(issue -> {
+      UpsertTagRequest request = issue.toUpsertTagRequest(tagUpsertPath());
+      RuntimeConfig.getString(JiraConnectorConfigKey.JIRA_ISSUE_URL_PREFIX)
+          .ifPresent(urlPrefix -> request.url(urlPrefix + issue.getKey()));
+      upsertRequests.put(issue.getId(), request);
+    });
+    return upsertRequests;
+  }
+
   private final Predicate<Tag> createdByConnector = tag ->
       tag.getPath().equals(tagUpsertPath())
           || tag.getPath().equals(StringUtils.strip(tagUpsertPath(), "/"));  // Old, deprecated format
@@ -325,41 +1012,193 @@ public class JiraConnector implements WiseTimeConnector {
     return Optional.empty();
   }
 
-  private Worklog buildWorklog(final Issue issue, final TimeGroup timeGroup,
-                               final String author, final Instant startTime, final long workedTime) {
-    final String messageBody = StringUtils.trimToEmpty(
-        EmojiParser.removeAllEmojis(
+  private String worklogBody(final TimeGroup timeGroup) {
+    return StringUtils.trimToEmpty(
+        EmojiStripper.removeAllEmojis(
             templateFormatter.format(timeGroup)
         )
     );
+  }
+
+  private Worklog buildWorklog(final Issue issue, final String body,
+                               final String author, final Instant startTime, final long workedTime) {
     return new Worklog()
         .setIssueId(issue.getId())
         .setAuthor(author)
-        .setBody(messageBody)
+        .setBody(body)
         .setCreated(startTime)
         .setTimeWorked(workedTime);
   }
 
+  /**
+   * Size of tag upsert batches, adapted to the latency of the WiseTime API if TAG_UPSERT_BATCH_SIZE_MAX is configured.
+   */
   private int tagUpsertBatchSize() {
+    return tagUpsertBatchSizer != null ? tagUpsertBatchSizer.batchSize() : configuredTagUpsertBatchSize();
+  }
+
+  private int configuredTagUpsertBatchSize() {
     return RuntimeConfig
         .getInt(JiraConnectorConfigKey.TAG_UPSERT_BATCH_SIZE)
         // A large batch mitigates query round trip latency
         .orElse(200);
   }
 
+  /**
+   * Number of projects to sync at the same time, each with its own last synced issue ID. Zero syncs all projects in
+   * PROJECT_KEYS_FILTER together, in a single pass over the issue IDs.
+   */
+  private int tagSyncParallelProjects() {
+    return RuntimeConfig
+        .getInt(JiraConnectorConfigKey.TAG_SYNC_PARALLEL_PROJECTS)
+        .orElse(0);
+  }
+
+  private boolean tagDeleteRemovedIssues() {
+    return RuntimeConfig
+        .getString(JiraConnectorConfigKey.TAG_DELETE_REMOVED_ISSUES)
+        .map(Boolean::parseBoolean)
+        .orElse(false);
+  }
+
+  /**
+   * Number of issue batches to read ahead from the Jira database while tags are being upserted. Zero disables
+   * read ahead.
+   */
+  private int tagSyncPrefetchBatches() {
+    return RuntimeConfig
+        .getInt(JiraConnectorConfigKey.TAG_SYNC_PREFETCH_BATCHES)
+        .orElse(0);
+  }
+
+  /**
+   * Whether posted time skips the database lookup of tags whose keys are not in the filter of all issue keys.
+   */
+  private boolean issueKeyFilterEnabled() {
+    return RuntimeConfig
+        .getString(JiraConnectorConfigKey.ISSUE_KEY_FILTER)
+        .map(Boolean::parseBoolean)
+        .orElse(false);
+  }
+
+  /**
+   * Serves the metrics over HTTP if METRICS_PORT is configured.
+   */
+  private Optional<MetricsEndpoint> startMetricsEndpoint() {
+    final Optional<Integer> port = RuntimeConfig.getInt(JiraConnectorConfigKey.METRICS_PORT);
+    if (!port.isPresent()) {
+      return Optional.empty();
+    }
+    final String bindAddress = RuntimeConfig.getString(JiraConnectorConfigKey.METRICS_BIND_ADDRESS)
+        .orElse("127.0.0.1");
+    try {
+      return Optional.of(new MetricsEndpoint(metrics, bindAddress, port.get()));
+    } catch (IOException e) {
+      throw new RuntimeException("Failed to serve metrics on " + bindAddress + ":" + port.get(), e);
+    }
+  }
+
+  /**
+   * Number of issue IDs that are cached for posting time.
+   */
+  private int issueIdCacheSize() {
+    return RuntimeConfig
+        .getInt(JiraConnectorConfigKey.ISSUE_ID_CACHE_SIZE)
+        .orElse(100_000);
+  }
+
+  /**
+   * How long the IDs of posted time groups are remembered, to recognise time groups that are delivered again.
+   */
+  private Duration postedTimeRetention() {
+    return Duration.ofDays(RuntimeConfig
+        .getInt(JiraConnectorConfigKey.POSTED_TIME_RETENTION_DAYS)
+        .orElse(30));
+  }
+
+  /**
+   * How long a post of time waits for posts from other threads to share its transaction, if at all.
+   */
+  private Optional<Integer> postTimeGroupCommitMillis() {
+    return RuntimeConfig
+        .getInt(JiraConnectorConfigKey.POST_TIME_GROUP_COMMIT_MILLIS)
+        .filter(lingerMillis -> lingerMillis > 0);
+  }
+
+  /**
+   * Number of tag upsert batches that may be sent to WiseTime at the same time during a sync.
+   */
+  private int tagUpsertWorkers() {
+    return RuntimeConfig
+        .getInt(JiraConnectorConfigKey.TAG_UPSERT_WORKERS)
+        .orElse(1);
+  }
+
+  /**
+   * How the sync reads new issues from the Jira database.
+   */
+  private IssueScan tagSyncScan() {
+    return RuntimeConfig
+        .getString(JiraConnectorConfigKey.TAG_SYNC_SCAN)
+        .map(scan -> IssueScan.valueOf(scan.trim().toUpperCase()))
+        .orElse(IssueScan.PAGED);
+  }
+
+  private TagRefreshMode tagRefreshMode() {
+    return RuntimeConfig
+        .getString(JiraConnectorConfigKey.TAG_REFRESH_MODE)
+        .map(mode -> TagRefreshMode.valueOf(mode.trim().toUpperCase()))
+        .orElse(TagRefreshMode.ROUND_ROBIN);
+  }
+
+  /**
+   * Number of days over which all issues should be refreshed. Fortnightly by default, or every 90 days if issues
+   * updated in Jira are refreshed incrementally.
+   */
+  private int tagFullRefreshDays() {
+    return RuntimeConfig
+        .getInt(JiraConnectorConfigKey.TAG_FULL_REFRESH_DAYS)
+        .orElse(tagRefreshMode() == TagRefreshMode.INCREMENTAL ? 90 : 14);
+  }
+
   @VisibleForTesting
   int tagRefreshBatchSize() {
-    final long tagCount = jiraDao.issueCount(getProjectKeysFilter());
-    final long batchFullFortnightlyRefresh = tagCount / (TimeUnit.DAYS.toMinutes(14) / tagSyncIntervalMinutes);
+    final long tagCount = issueCount();
+    final long batchFullRefresh = tagCount / (TimeUnit.DAYS.toMinutes(tagFullRefreshDays()) / tagSyncIntervalMinutes);
 
-    if (batchFullFortnightlyRefresh > tagUpsertBatchSize()) {
+    if (batchFullRefresh > tagUpsertBatchSize()) {
       return tagUpsertBatchSize();
     }
     final int minimumBatchSize = 10;
-    if (batchFullFortnightlyRefresh < minimumBatchSize) {
+    if (batchFullRefresh < minimumBatchSize) {
       return minimumBatchSize;
     }
-    return (int) batchFullFortnightlyRefresh;
+    return (int) batchFullRefresh;
+  }
+
+  /**
+   * Number of issues to refresh. Counting every issue in the Jira database is slow, so the count is taken at most once
+   * per recount interval, and new issues are added to it as they are synced in between. Deleted issues are only
+   * accounted for at the next recount, which is fine for sizing refresh batches.
+   */
+  private long issueCount() {
+    final long cachedCount = issueCount.get();
+    if (cachedCount >= 0 && issueCountedAt.plus(ISSUE_RECOUNT_INTERVAL).isAfter(Instant.now())) {
+      return cachedCount;
+    }
+    final long count = jiraDao.issueCount(getProjectKeysFilter());
+    issueCount.set(count);
+    issueCountedAt = Instant.now();
+    log.debug("Counted {} Jira issues", count);
+    return count;
+  }
+
+  /**
+   * Discards the cached issue count, so that issues are counted again when the next refresh batch is sized.
+   */
+  @VisibleForTesting
+  void resetIssueCount() {
+    issueCount.set(-1);
   }
 
   private String tagUpsertPath() {
@@ -383,6 +1222,16 @@ public class JiraConnector implements WiseTimeConnector {
         ).orElse(ArrayUtils.toArray());
   }
 
+  /**
+   * Location of a connector data file in the configured DATA_DIR. Empty if no data directory is configured, in which
+   * case the data is only kept in memory.
+   */
+  private static Optional<Path> dataFile(final String fileName) {
+    return RuntimeConfig
+        .getString(ConnectorConfigKey.DATA_DIR)
+        .map(dataDir -> Paths.get(dataDir, fileName));
+  }
+
   private static String ellipsize(final List<String> items) {
     if (items.size() < 6) {
       return String.join(", ", items);
@@ -390,9 +1239,62 @@ public class JiraConnector implements WiseTimeConnector {
     return items.get(0) + ", ... , " + items.get(items.size() - 1);
   }
 
+  private enum IssueScan {
+    /**
+     * One query per batch of issues
+     */
+    PAGED,
+    /**
+     * One query for all new issues, read incrementally from a server side cursor
+     */
+    CURSOR
+  }
+
+  /**
+   * Consecutive sync failures of a project, and the time until which the project is not synced again.
+   */
+  @Getter
+  private static class ProjectSyncPause {
+    private static final long MAX_PAUSE_MINUTES = 60;
+
+    private int failures = 0;
+    private Instant pausedUntil = Instant.MIN;
+
+    ProjectSyncPause recordFailure() {
+      failures++;
+      final long pauseMinutes = Math.min(MAX_PAUSE_MINUTES, 1L << Math.min(failures - 1, 6));
+      pausedUntil = Instant.now().plus(pauseMinutes, ChronoUnit.MINUTES);
+      return this;
+    }
+  }
+
+  private enum TagRefreshMode {
+    /**
+     * Refresh a batch of all issues on every run, so that all of them are refreshed within the full refresh period
+     */
+    ROUND_ROBIN,
+    /**
+     * Refresh all issues updated since the last run, and all issues over a longer full refresh period
+     */
+    INCREMENTAL
+  }
+
   private static class IssueNotFoundException extends RuntimeException {
     IssueNotFoundException(String message) {
       super(message);
     }
   }
+
+  private static class OutdatedIssueIdsException extends RuntimeException {
+    private final Set<Long> issueIds;
+
+    OutdatedIssueIdsException(Set<Long> issueIds) {
+      super("Jira issues no longer exist: " + issueIds);
+      this.issueIds = issueIds;
+    }
+
+    Set<Long> getIssueIds() {
+      return issueIds;
+    }
+  }
 }
@@ -4,26 +4,43 @@
 
 package io.wisetime.connector.jira;
 
+import static io.wisetime.connector.jira.UserDirectory.DirectoryUser;
 import static java.lang.String.format;
 import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.joining;
 import static java.util.stream.Collectors.mapping;
 import static java.util.stream.Collectors.toList;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
-import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.inject.Inject;
+import com.google.inject.name.Named;
 import com.zaxxer.hikari.HikariDataSource;
+import io.wisetime.connector.config.RuntimeConfig;
+import io.wisetime.connector.jira.ConnectorLauncher.JiraConnectorConfigKey;
 import io.wisetime.generated.connect.UpsertTagRequest;
+import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Timestamp;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.IntSupplier;
+import java.util.stream.IntStream;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -34,9 +51,9 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.codejargon.fluentjdbc.api.FluentJdbc;
 import org.codejargon.fluentjdbc.api.FluentJdbcBuilder;
-import org.codejargon.fluentjdbc.api.FluentJdbcException;
 import org.codejargon.fluentjdbc.api.mapper.Mappers;
 import org.codejargon.fluentjdbc.api.query.Query;
+import org.codejargon.fluentjdbc.api.query.UpdateResult;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -47,27 +64,126 @@ import org.slf4j.LoggerFactory;
  * @author alvin.llobrera
  */
 class JiraDao {
+  // Above this many filtered projects, a page is read with a single IN scan instead of one scan per project
+  private static final int MAX_MERGED_PROJECT_SCANS = 20;
+  // Worklog IDs reserved at a time, the same as the bank of IDs Jira reserves for itself
+  private static final int WORKLOG_ID_BLOCK_SIZE = 100;
+  private static final String USER_COLUMNS =
+      "id, user_name, lower_user_name, lower_email_address, active, updated_date ";
+  private static final Duration REPLICA_CHECK_INTERVAL = Duration.ofSeconds(10);
+  // Project and issue type names are looked up in the dimension cache, so issue queries only read jiraissue
+  private static final String ISSUE_COLUMNS = "jiraissue.id, jiraissue.project, jiraissue.issuenum, "
+      + "jiraissue.summary, jiraissue.timespent, jiraissue.issuetype, jiraissue.updated ";
+
   private final Logger log = LoggerFactory.getLogger(JiraDao.class);
   private final FluentJdbc fluentJdbc;
   private final HikariDataSource dataSource;
+  // Scans go to the scan pool, or to the read replica while it is configured and not too far behind
+  private Optional<HikariDataSource> scanDataSource = Optional.empty();
+  private Optional<FluentJdbc> scanJdbc = Optional.empty();
+  private Optional<HikariDataSource> readDataSource = Optional.empty();
+  private Optional<FluentJdbc> readJdbc = Optional.empty();
+  private Optional<ReplicaLagGuard> replicaLagGuard = Optional.empty();
+  private final DimensionCache dimensionCache = new DimensionCache(this::loadDimensions, Duration.ofMinutes(10));
+  private final UserDirectory userDirectory = new UserDirectory(
+      this::iterateUsersUpdatedSince, this::findUsersByNameOrEmail, Duration.ofMinutes(5), Duration.ofHours(24)
+  );
+  // Worklog IDs are reserved through their own connection, outside of any transaction posting time
+  private FluentJdbc sequenceJdbc;
+  private Optional<HikariDataSource> sequenceDataSource = Optional.empty();
+  private long nextWorklogId = 0;
+  private long worklogIdBlockEnd = 0;
 
   @Inject
   JiraDao(HikariDataSource dataSource) {
     this.dataSource = dataSource;
     fluentJdbc = new FluentJdbcBuilder().connectionProvider(dataSource).build();
+    sequenceJdbc = new FluentJdbcBuilder()
+        .connectionProvider(query -> {
+          try (Connection connection = dataSource.getConnection()) {
+            query.receive(connection);
+          }
+        })
+        .build();
+  }
+
+  /**
+   * Reserves worklog IDs over a dedicated connection, if one is bound. Otherwise a second connection is borrowed from
+   * the main pool while the post holds one, which can exhaust the pool when many posts run at once.
+   */
+  @Inject(optional = true)
+  void useWorklogSequencePool(@Named(ConnectorLauncher.JiraDbModule.WORKLOG_SEQUENCE) HikariDataSource sequencePool) {
+    sequenceDataSource = Optional.of(sequencePool);
+    sequenceJdbc = new FluentJdbcBuilder().connectionProvider(sequencePool).build();
+  }
+
+  /**
+   * Sends scans to their own pool of the primary database, if one is bound.
+   */
+  @Inject(optional = true)
+  void useScanPool(@Named(ConnectorLauncher.JiraDbModule.SCAN_POOL) HikariDataSource scanPool) {
+    scanDataSource = Optional.of(scanPool);
+    scanJdbc = Optional.of(new FluentJdbcBuilder().connectionProvider(scanPool).build());
+  }
+
+  /**
+   * Sends scans to the read replica, if one is bound. Reads go back to the primary database while the replica lags.
+   */
+  @Inject(optional = true)
+  void useReadReplica(@Named(ConnectorLauncher.JiraDbModule.READ_REPLICA) HikariDataSource readReplica) {
+    final FluentJdbc replicaJdbc = new FluentJdbcBuilder().connectionProvider(readReplica).build();
+    final Duration maxLag = Duration.ofSeconds(
+        RuntimeConfig.getInt(JiraConnectorConfigKey.JIRA_READ_MAX_LAG_SECONDS).orElse(30));
+    readDataSource = Optional.of(readReplica);
+    readJdbc = Optional.of(replicaJdbc);
+    replicaLagGuard.ifPresent(ReplicaLagGuard::stop);
+    replicaLagGuard = Optional.of(new ReplicaLagGuard(
+        () -> lastIssueUpdate(scanQuery()), () -> lastIssueUpdate(replicaJdbc.query()), maxLag
+    ));
+    replicaLagGuard.get().start(REPLICA_CHECK_INTERVAL);
   }
 
   void asTransaction(final Runnable runnable) {
     query().transaction().inNoResult(runnable);
   }
 
+  /**
+   * Runs the writes in one transaction, each in its own savepoint. A write that fails is rolled back to its savepoint
+   * without affecting the other writes.
+   *
+   * @return the failure of each write, in the order of the writes
+   */
+  List<Optional<RuntimeException>> asTransactionWithSavepoints(final List<Runnable> writes) {
+    return query().transaction().in(() -> {
+      final List<Optional<RuntimeException>> failures = new ArrayList<>(writes.size());
+      for (Runnable write : writes) {
+        final Savepoint savepoint = query().plainConnection(Connection::setSavepoint);
+        try {
+          write.run();
+          query().plainConnection(connection -> {
+            connection.releaseSavepoint(savepoint);
+            return null;
+          });
+          failures.add(Optional.empty());
+        } catch (RuntimeException e) {
+          query().plainConnection(connection -> {
+            connection.rollback(savepoint);
+            return null;
+          });
+          failures.add(Optional.of(e));
+        }
+      }
+      return failures;
+    });
+  }
+
   boolean hasExpectedSchema() {
     log.info("Checking if Jira DB has correct schema...");
 
     final Map<String, Set<String>> requiredTablesAndColumnsMap = Maps.newHashMap();
     requiredTablesAndColumnsMap.put(
         "jiraissue",
-        ImmutableSet.of("id", "issuenum", "summary", "timespent", "project", "issuetype")
+        ImmutableSet.of("id", "issuenum", "summary", "timespent", "project", "issuetype", "updated")
     );
     requiredTablesAndColumnsMap.put(
         "project",
@@ -75,7 +191,7 @@ class JiraDao {
     );
     requiredTablesAndColumnsMap.put(
         "cwd_user",
-        ImmutableSet.of("user_name", "lower_user_name", "lower_email_address")
+        ImmutableSet.of("id", "user_name", "lower_user_name", "lower_email_address", "active", "updated_date")
     );
     requiredTablesAndColumnsMap.put(
         "worklog",
@@ -127,123 +243,376 @@ class JiraDao {
   }
 
   long issueCount(final String... projectKeys) {
-    String query = "SELECT COUNT(*) "
-        + "FROM jiraissue INNER JOIN project ON project.id = jiraissue.project ";
+    String query = "SELECT COUNT(*) FROM jiraissue ";
 
+    final List<Long> projectIds = dimensionCache.projectIds(projectKeys);
     if (ArrayUtils.isNotEmpty(projectKeys)) {
-      query += "WHERE project.pkey in (:projectKeys) ";
+      if (projectIds.isEmpty()) {
+        return 0;
+      }
+      query += "WHERE jiraissue.project in (:projectIds) ";
     }
-    return query().select(query)
-        .namedParam("projectKeys", Lists.newArrayList(projectKeys))
+    return readQuery().select(query)
+        .namedParam("projectIds", projectIds)
         .firstResult(Mappers.singleLong())
         .orElse(0L);
   }
 
-  Optional<Issue> findIssueByTagName(final String tagName) {
-    return IssueKey
-        .fromTagName(tagName)
-        .flatMap(ik ->
-            query().select("SELECT jiraissue.id, project.pkey, jiraissue.issuenum, "
-                + "jiraissue.summary, jiraissue.timespent, issuetype.pname "
-                + "FROM project "
-                + "INNER JOIN jiraissue ON project.id = jiraissue.project "
-                + "LEFT JOIN issuetype ON issuetype.id = jiraissue.issuetype "
-                + "WHERE project.pkey = ? AND jiraissue.issuenum = ?")
-                .params(
-                    ik.getProjectKey(),
-                    ik.getIssueNumber()
-                )
-                .firstResult(this::buildIssueFromResultSet)
-        );
+  /**
+   * Looks up the issues of several tags in a single query. Tag names are grouped by project, so that the query has one
+   * issue number IN list per project.
+   */
+  IssueLookup findIssuesByTagNames(final Collection<String> tagNames) {
+    final IssueLookup lookup = new IssueLookup();
+    // Tag names by the project ID and issue number of the issue they refer to
+    final Map<Long, Map<Integer, List<String>>> tagNamesByIssue = new LinkedHashMap<>();
+    for (String tagName : tagNames) {
+      final Optional<IssueKey> issueKey = IssueKey.fromTagName(tagName);
+      final Optional<Long> projectId = issueKey
+          .flatMap(ik -> dimensionCache.projectIds(ik.getProjectKey()).stream().findFirst());
+      if (projectId.isPresent()) {
+        tagNamesByIssue
+            .computeIfAbsent(projectId.get(), id -> new LinkedHashMap<>())
+            .computeIfAbsent(issueKey.get().getIssueNumber(), number -> new ArrayList<>())
+            .add(tagName);
+      } else {
+        lookup.getMissingTagNames().add(tagName);
+      }
+    }
+    if (tagNamesByIssue.isEmpty()) {
+      return lookup;
+    }
+
+    final List<String> conditions = new ArrayList<>();
+    final Map<String, Object> params = new HashMap<>();
+    tagNamesByIssue.forEach((projectId, tagNamesByNumber) -> {
+      final int i = conditions.size();
+      conditions.add(format("(jiraissue.project = :projectId%d AND jiraissue.issuenum in (:issueNumbers%d))", i, i));
+      params.put("projectId" + i, projectId);
+      params.put("issueNumbers" + i, new ArrayList<>(tagNamesByNumber.keySet()));
+    });
+    query().select("SELECT " + ISSUE_COLUMNS + "FROM jiraissue WHERE " + String.join(" OR ", conditions))
+        .namedParams(params)
+        .iterateResult(this::buildIssueFromResultSet, issue -> {
+          final List<String> issueTagNames = dimensionCache.projectIds(issue.getProjectKey()).stream()
+              .findFirst()
+              .map(tagNamesByIssue::get)
+              .map(tagNamesByNumber -> tagNamesByNumber.remove(Integer.parseInt(issue.getIssueNumber())))
+              .orElse(ImmutableList.of());
+          issueTagNames.forEach(tagName -> lookup.getIssues().put(tagName, issue));
+        });
+    // Whatever wasn't matched by an issue doesn't exist in Jira
+    tagNamesByIssue.values().forEach(tagNamesByNumber ->
+        tagNamesByNumber.values().forEach(lookup.getMissingTagNames()::addAll));
+    return lookup;
   }
 
+  /**
+   * Finds the next page of issues after {@code startIdExclusive} in ID order.
+   *
+   * If a few projects are filtered, each of them is scanned for at most one page on its own and the results are merged
+   * by ID. A page then costs in proportion to the issues of those projects, rather than walking the IDs of all issues
+   * until enough matching issues are found.
+   */
   List<Issue> findIssuesOrderedById(final long startIdExclusive, final int maxResults, final String... projectKeys) {
-    String query = "SELECT jiraissue.id, project.pkey, jiraissue.issuenum,"
-        + "jiraissue.summary, jiraissue.timespent, issuetype.pname "
-        + "FROM project "
-        + "INNER JOIN jiraissue ON project.id = jiraissue.project "
-        + "LEFT JOIN issuetype ON issuetype.id = jiraissue.issuetype "
-        + "WHERE jiraissue.id > :startIdExclusive ";
+    final List<Long> projectIds = dimensionCache.projectIds(projectKeys);
+    if (ArrayUtils.isNotEmpty(projectKeys) && projectIds.isEmpty()) {
+      return new ArrayList<>();
+    }
+    if (projectIds.size() > 1 && projectIds.size() <= MAX_MERGED_PROJECT_SCANS) {
+      final Map<String, Object> params = new HashMap<>();
+      params.put("startIdExclusive", startIdExclusive);
+      params.put("maxResults", maxResults);
+      for (int i = 0; i < projectIds.size(); i++) {
+        params.put("projectId" + i, projectIds.get(i));
+      }
+      return withKnownProject(readQuery().select(mergedProjectScanQuery(projectIds.size()))
+          .namedParams(params)
+          .listResult(this::buildIssueFromResultSet));
+    }
+    return withKnownProject(readQuery().select(issuesOrderedByIdQuery(projectKeys) + " LIMIT :maxResults")
+        .namedParam("startIdExclusive", startIdExclusive)
+        .namedParam("projectIds", projectIds)
+        .namedParam("maxResults", maxResults)
+        .listResult(this::buildIssueFromResultSet));
+  }
+
+  /**
+   * Reads all issues with an ID greater than {@code startIdExclusive} in ID order over a single server side cursor,
+   * instead of running one LIMIT query per page. Issues are passed to the consumer in batches as rows arrive, so memory
+   * use does not depend on the number of issues left. The size of each batch is read from {@code batchSize} when the
+   * batch is started, so that it can change during the scan. The consumer may block; the cursor stays open until it
+   * returns.
+   *
+   * The scan runs in a transaction, as the Postgres driver only honours the fetch size with auto commit off. MySQL
+   * needs {@code useCursorFetch} enabled for the same, see {@link ConnectorLauncher.JiraDbModule}.
+   */
+  void streamIssuesOrderedById(final long startIdExclusive, final IntSupplier batchSize,
+                               final Consumer<List<Issue>> consumer, final String... projectKeys) {
+    final List<Long> projectIds = dimensionCache.projectIds(projectKeys);
+    if (ArrayUtils.isNotEmpty(projectKeys) && projectIds.isEmpty()) {
+      return;
+    }
+    final String scanQuery = issuesOrderedByIdQuery(projectKeys);
+    final List<Issue> batch = new ArrayList<>();
+    final int[] currentBatchSize = {batchSize.getAsInt()};
+    final Query scan = readQuery();
+    scan.transaction().inNoResult(() -> scan.select(scanQuery)
+        .namedParam("startIdExclusive", startIdExclusive)
+        .namedParam("projectIds", projectIds)
+        .fetchSize(currentBatchSize[0])
+        .iterateResult(this::buildIssueFromResultSet, issue -> {
+          if (issue.getProjectKey() == null) {
+            return;
+          }
+          batch.add(issue);
+          if (batch.size() >= currentBatchSize[0]) {
+            consumer.accept(new ArrayList<>(batch));
+            batch.clear();
+            currentBatchSize[0] = batchSize.getAsInt();
+          }
+        })
+    );
+    if (!batch.isEmpty()) {
+      consumer.accept(batch);
+    }
+  }
+
+  /**
+   * Finds issues that were updated after the given (updated, ID) position, ordered by update time and then by ID so
+   * that the last issue returned can be used as the next position.
+   */
+  List<Issue> findIssuesOrderedByUpdated(final Instant updatedAfter, final long idAfter, final int maxResults,
+                                         final String... projectKeys) {
+    final List<Long> projectIds = dimensionCache.projectIds(projectKeys);
+    if (ArrayUtils.isNotEmpty(projectKeys) && projectIds.isEmpty()) {
+      return new ArrayList<>();
+    }
+    String query = "SELECT " + ISSUE_COLUMNS
+        + "FROM jiraissue "
+        + "WHERE (jiraissue.updated > :updatedAfter "
+        + "OR (jiraissue.updated = :updatedAfter AND jiraissue.id > :idAfter)) ";
 
     if (ArrayUtils.isNotEmpty(projectKeys)) {
-      query += "AND project.pkey in (:projectKeys) ";
+      query += "AND jiraissue.project in (:projectIds) ";
     }
-    query += "ORDER BY ID ASC LIMIT :maxResults";
+    query += "ORDER BY jiraissue.updated ASC, jiraissue.id ASC LIMIT :maxResults";
 
-    return query().select(query)
-        .namedParam("startIdExclusive", startIdExclusive)
-        .namedParam("projectKeys", Lists.newArrayList(projectKeys))
+    return withKnownProject(readQuery().select(query)
+        .namedParam("updatedAfter", Timestamp.from(updatedAfter))
+        .namedParam("idAfter", idAfter)
+        .namedParam("projectIds", projectIds)
         .namedParam("maxResults", maxResults)
-        .listResult(this::buildIssueFromResultSet);
+        .listResult(this::buildIssueFromResultSet));
+  }
+
+  private static String mergedProjectScanQuery(final int projectCount) {
+    return IntStream.range(0, projectCount)
+        .mapToObj(i -> "(SELECT " + ISSUE_COLUMNS
+            + "FROM jiraissue "
+            + "WHERE jiraissue.project = :projectId" + i + " AND jiraissue.id > :startIdExclusive "
+            + "ORDER BY jiraissue.id ASC LIMIT :maxResults)")
+        .collect(joining(" UNION ALL ", "", " ORDER BY id ASC LIMIT :maxResults"));
+  }
+
+  private String issuesOrderedByIdQuery(final String... projectKeys) {
+    String query = "SELECT " + ISSUE_COLUMNS
+        + "FROM jiraissue "
+        + "WHERE jiraissue.id > :startIdExclusive ";
+
+    if (ArrayUtils.isNotEmpty(projectKeys)) {
+      query += "AND jiraissue.project in (:projectIds) ";
+    }
+    return query + "ORDER BY ID ASC";
+  }
+
+  /**
+   * Leaves out issues of projects that don't exist, as the project join used to do.
+   */
+  private static List<Issue> withKnownProject(final List<Issue> issues) {
+    return issues.stream()
+        .filter(issue -> issue.getProjectKey() != null)
+        .collect(toList());
+  }
+
+  /**
+   * Always reads the primary database: tags of the issues that are not found get deleted, and an issue that is new to
+   * a lagging read replica would look deleted.
+   *
+   * @return those of the given issue IDs that are still in the database
+   */
+  Set<Long> findExistingIssueIds(final Collection<Long> issueIds) {
+    if (issueIds.isEmpty()) {
+      return new HashSet<>();
+    }
+    return new HashSet<>(scanQuery().select("SELECT id FROM jiraissue WHERE id in (:issueIds)")
+        .namedParam("issueIds", new ArrayList<>(issueIds))
+        .listResult(Mappers.singleLong()));
   }
 
   boolean userExists(final String username) {
-    return query().select("SELECT user_name FROM cwd_user WHERE lower_user_name = :username")
-        .namedParam("username", username.toLowerCase()) // Username in Jira Login is not case sensitive
-        .firstResult(Mappers.singleString())
-        .isPresent();
+    // Username in Jira Login is not case sensitive
+    return userDirectory.userExists(username);
   }
 
   Optional<String> findUsernameByEmail(final String email) {
-    return query().select("SELECT user_name FROM cwd_user WHERE lower_email_address = :email")
-        .namedParam("email", email.toLowerCase())
-        .firstResult(Mappers.singleString());
+    return userDirectory.findUsernameByEmail(email);
   }
 
-  void updateIssueTimeSpent(final long issueId, final long duration) {
-    query().update("UPDATE jiraissue SET timespent = :totalTimeSpent WHERE id = :jiraIssueId")
-        .namedParam("totalTimeSpent", duration)
-        .namedParam("jiraIssueId", issueId)
+  /**
+   * Adds to the time spent of several issues in one batched statement. The time spent is incremented in the database
+   * rather than overwritten, so that concurrent posts to the same issue don't lose each other's time.
+   *
+   * @return the IDs of issues that don't exist
+   */
+  Set<Long> addIssuesTimeSpent(final Map<Long, Long> durationByIssueId) {
+    if (durationByIssueId.isEmpty()) {
+      return ImmutableSet.of();
+    }
+    final List<Map.Entry<Long, Long>> durations = new ArrayList<>(durationByIssueId.entrySet());
+    final List<UpdateResult> results = query()
+        .batch("UPDATE jiraissue SET timespent = COALESCE(timespent, 0) + ? WHERE id = ?")
+        .params(durations.stream()
+            .<List<?>>map(duration -> ImmutableList.of(duration.getValue(), duration.getKey())))
         .run();
+    // Drivers that rewrite batches may not report row counts, only zero means the issue doesn't exist
+    final Set<Long> missingIssueIds = new HashSet<>();
+    for (int i = 0; i < results.size(); i++) {
+      if (results.get(i).affectedRows() == 0) {
+        missingIssueIds.add(durations.get(i).getKey());
+      }
+    }
+    return missingIssueIds;
   }
 
-  void createWorklog(final Worklog worklog) {
-    // Add 199 to the current seq ID (or 10100 as base point if no work log id is not yet set)
-    // to make sure the new seq ID is not used by the connected Jira system
-    long nextSeqId = getWorklogSeqId().orElse(10_100L) + 199L;
-
-    query().update("INSERT INTO worklog (id, issueid, author, timeworked, created, worklogbody) "
-        + "VALUES (:sequenceId, :jiraIssueId, :jiraUsername, :timeSpent, :createdDate, :comment);")
-        .namedParam("sequenceId", nextSeqId)
-        .namedParam("jiraIssueId", worklog.getIssueId())
-        .namedParam("jiraUsername", worklog.getAuthor())
-        .namedParam("timeSpent", worklog.getTimeWorked())
-        .namedParam("createdDate", worklog.getCreated())
-        .namedParam("comment", worklog.getBody())
+  /**
+   * Inserts several worklogs in one batched statement.
+   */
+  void createWorklogs(final List<Worklog> worklogs) {
+    if (worklogs.isEmpty()) {
+      return;
+    }
+    query().batch("INSERT INTO worklog (id, issueid, author, timeworked, created, worklogbody) "
+        + "VALUES (?, ?, ?, ?, ?, ?)")
+        .params(worklogs.stream()
+            .<List<?>>map(worklog -> Arrays.asList(
+                nextWorklogId(),
+                worklog.getIssueId(),
+                worklog.getAuthor(),
+                worklog.getTimeWorked(),
+                worklog.getCreated(),
+                worklog.getBody()
+            )))
         .run();
-
-    // Update the "sequence_value_item" table for the new work log seq id used
-    upsertWorklogSeqId(nextSeqId);
   }
 
-  private void upsertWorklogSeqId(final long seqId) {
-    if (getWorklogSeqId().isPresent()) {
-      updateWorklogSeqId(seqId);
-    } else {
-      createWorklogSeqId(seqId);
+  /**
+   * Hands out worklog IDs from a block reserved in the "sequence_value_item" table, reserving the next block when the
+   * current one runs out.
+   */
+  private synchronized long nextWorklogId() {
+    if (nextWorklogId >= worklogIdBlockEnd) {
+      nextWorklogId = reserveWorklogIds(WORKLOG_ID_BLOCK_SIZE);
+      worklogIdBlockEnd = nextWorklogId + WORKLOG_ID_BLOCK_SIZE;
     }
+    return nextWorklogId++;
   }
 
-  Optional<Long> getWorklogSeqId() {
-    try {
-      final long seqId = query().select("SELECT seq_id FROM SEQUENCE_VALUE_ITEM WHERE seq_name='Worklog'")
+  /**
+   * Moves the Worklog sequence past a block of {@code count} IDs in a single update, and returns the first ID of the
+   * block. The block starts 199 after the current sequence value (or after 10100 if there is none yet), to make sure
+   * its IDs are not used by the connected Jira system, which caches a bank of IDs below the sequence value.
+   *
+   * The update is committed in its own transaction on a separate connection. IDs handed out must stay reserved even if
+   * the transaction that uses them is rolled back.
+   */
+  private long reserveWorklogIds(final int count) {
+    final long increment = 199L + count;
+    return sequenceJdbc.query().transaction().in(() -> {
+      final long updated = sequenceJdbc.query()
+          .update("UPDATE SEQUENCE_VALUE_ITEM SET seq_id = seq_id + ? WHERE seq_name='Worklog'")
+          .params(increment)
+          .run()
+          .affectedRows();
+      if (updated == 0) {
+        sequenceJdbc.query().update("INSERT INTO SEQUENCE_VALUE_ITEM (seq_name, seq_id) VALUES ('Worklog', ?)")
+            .params(10_100L + increment)
+            .run();
+      }
+      final long blockEnd = sequenceJdbc.query()
+          .select("SELECT seq_id FROM SEQUENCE_VALUE_ITEM WHERE seq_name='Worklog'")
           .singleResult(Mappers.singleLong());
-      return Optional.of(seqId);
-    } catch (FluentJdbcException e) {
-      return Optional.empty();
+      log.debug("Reserved worklog IDs {} to {}", blockEnd - count, blockEnd - 1);
+      return blockEnd - count;
+    });
+  }
+
+  /**
+   * Forgets the rest of the reserved block of worklog IDs, so that the next worklog reserves a new block.
+   */
+  @VisibleForTesting
+  synchronized void discardReservedWorklogIds() {
+    nextWorklogId = 0;
+    worklogIdBlockEnd = 0;
+  }
+
+  /**
+   * Forgets the cached project keys and issue type names, so that they are read from the database again.
+   */
+  @VisibleForTesting
+  void invalidateDimensionCache() {
+    dimensionCache.invalidate();
+  }
+
+  /**
+   * Forgets the cached user directory, so that users are read from the database again.
+   */
+  @VisibleForTesting
+  void invalidateUserDirectory() {
+    userDirectory.invalidate();
+  }
+
+  private void iterateUsersUpdatedSince(final Instant updatedSince, final Consumer<DirectoryUser> consumer) {
+    if (updatedSince == null) {
+      readQuery().select("SELECT " + USER_COLUMNS + "FROM cwd_user")
+          .iterateResult(this::buildDirectoryUserFromResultSet, consumer::accept);
+    } else {
+      readQuery().select("SELECT " + USER_COLUMNS + "FROM cwd_user WHERE updated_date >= :updatedSince")
+          .namedParam("updatedSince", Timestamp.from(updatedSince))
+          .iterateResult(this::buildDirectoryUserFromResultSet, consumer::accept);
     }
   }
 
-  private void createWorklogSeqId(final long seqId) {
-    query().update("INSERT INTO SEQUENCE_VALUE_ITEM (seq_name, seq_id) VALUES ('Worklog', ?)")
-        .params(seqId)
-        .run();
+  private List<DirectoryUser> findUsersByNameOrEmail(final String lowerNameOrEmail) {
+    return query().select("SELECT " + USER_COLUMNS + "FROM cwd_user "
+        + "WHERE lower_user_name = :nameOrEmail OR lower_email_address = :nameOrEmail")
+        .namedParam("nameOrEmail", lowerNameOrEmail)
+        .listResult(this::buildDirectoryUserFromResultSet);
   }
 
-  private void updateWorklogSeqId(final long newSeqId) {
-    query().update("UPDATE SEQUENCE_VALUE_ITEM SET seq_id=? WHERE seq_name='Worklog'")
-        .params(newSeqId)
-        .run();
+  private DirectoryUser buildDirectoryUserFromResultSet(final ResultSet resultSet) throws SQLException {
+    final int active = resultSet.getInt(5);
+    final boolean activeUnknown = resultSet.wasNull();
+    final Timestamp updated = resultSet.getTimestamp(6);
+    return new DirectoryUser()
+        .setId(resultSet.getLong(1))
+        .setUserName(resultSet.getString(2))
+        .setLowerUserName(resultSet.getString(3))
+        .setLowerEmailAddress(resultSet.getString(4))
+        .setActive(activeUnknown || active == 1)
+        .setUpdated(updated == null ? null : updated.toInstant());
+  }
+
+  private DimensionCache.Dimensions loadDimensions() {
+    final Map<Long, String> projectKeys = new HashMap<>();
+    query().select("SELECT id, pkey FROM project WHERE pkey IS NOT NULL")
+        .iterateResult(rs -> ImmutablePair.of(rs.getLong(1), rs.getString(2)),
+            project -> projectKeys.put(project.getKey(), project.getValue()));
+    final Map<String, String> issueTypeNames = new HashMap<>();
+    query().select("SELECT id, pname FROM issuetype WHERE pname IS NOT NULL")
+        .iterateResult(rs -> ImmutablePair.of(rs.getString(1), rs.getString(2)),
+            issueType -> issueTypeNames.put(issueType.getKey(), issueType.getValue()));
+    return new DimensionCache.Dimensions(projectKeys, issueTypeNames);
   }
 
   private Issue buildIssueFromResultSet(final ResultSet resultSet) throws SQLException {
@@ -251,19 +620,69 @@ class JiraDao {
     // unfortunately getting them by name is handled differently in MySQL and pg jdbc drivers
     return new Issue()
         .setId(resultSet.getLong(1))
-        .setProjectKey(resultSet.getString(2))
+        .setProjectKey(dimensionCache.projectKey(resultSet.getLong(2)).orElse(null))
         .setIssueNumber(resultSet.getString(3))
         .setSummary(resultSet.getString(4))
         .setTimeSpent(resultSet.getLong(5))
-        .setIssueType(StringUtils.trimToEmpty(resultSet.getString(6)));
+        .setIssueType(dimensionCache.issueTypeName(resultSet.getString(6)))
+        .setUpdated(Optional.ofNullable(resultSet.getTimestamp(7)).map(Timestamp::toInstant).orElse(null));
   }
 
   private Query query() {
     return fluentJdbc.query();
   }
 
+  /**
+   * @return a query against the read replica if it is configured and not lagging, or else against the primary database
+   */
+  private Query readQuery() {
+    if (readJdbc.isPresent() && replicaLagGuard.get().replicaUsable()) {
+      return readJdbc.get().query();
+    }
+    return scanQuery();
+  }
+
+  /**
+   * @return a query against the primary database over the scan pool, if there is one
+   */
+  private Query scanQuery() {
+    return scanJdbc.map(FluentJdbc::query).orElseGet(this::query);
+  }
+
+  /**
+   * Registers the wait time and connection use metrics of each connection pool.
+   */
+  void registerPoolMetrics(final ConnectorMetrics metrics) {
+    registerPoolMetrics(metrics, dataSource, "primary");
+    scanDataSource.ifPresent(scanPool -> registerPoolMetrics(metrics, scanPool, "scan"));
+    sequenceDataSource.ifPresent(sequencePool -> registerPoolMetrics(metrics, sequencePool, "worklog_sequence"));
+    readDataSource.ifPresent(readReplica -> registerPoolMetrics(metrics, readReplica, "read_replica"));
+  }
+
+  private static void registerPoolMetrics(final ConnectorMetrics metrics, final HikariDataSource pool,
+                                          final String partition) {
+    if (pool.getMetricsTrackerFactory() instanceof PoolPartitionMetrics) {
+      ((PoolPartitionMetrics) pool.getMetricsTrackerFactory()).registerGauges(metrics, partition);
+    }
+  }
+
+  /**
+   * Reads the latest update time of any issue, which Jira keeps an index on.
+   */
+  private static Instant lastIssueUpdate(final Query query) {
+    return query.select("SELECT MAX(updated) FROM jiraissue")
+        .firstResult(resultSet -> Optional.ofNullable(resultSet.getTimestamp(1))
+            .map(Timestamp::toInstant)
+            .orElse(Instant.EPOCH))
+        .orElse(Instant.EPOCH);
+  }
+
   void shutdown() {
+    replicaLagGuard.ifPresent(ReplicaLagGuard::stop);
     dataSource.close();
+    scanDataSource.ifPresent(HikariDataSource::close);
+    sequenceDataSource.ifPresent(HikariDataSource::close);
+    readDataSource.ifPresent(HikariDataSource::close);
   }
 
   /**
@@ -282,6 +701,7 @@ class JiraDao {
     private String summary;
     private long timeSpent;
     private String issueType;
+    private Instant updated;
 
     /**
      * A Jira issue key is made up of {projectKey}-{issueNumber} E.g. WT-1234
@@ -309,6 +729,19 @@ class JiraDao {
     }
   }
 
+  /**
+   * Result of looking up the issues of several tags.
+   */
+  @Data
+  @Accessors(chain = true)
+  public static class IssueLookup {
+
+    // Issues found, by the tag name they were looked up with
+    private Map<String, Issue> issues = new LinkedHashMap<>();
+    // Tag names that aren't Jira issue keys, or whose issue doesn't exist in Jira
+    private List<String> missingTagNames = new ArrayList<>();
+  }
+
   /**
    * Jira issue reference
    */
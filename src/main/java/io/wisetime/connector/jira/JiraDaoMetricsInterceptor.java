@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2026 Practice Insight Pty Ltd. All Rights Reserved.
+ */
+
+package io.wisetime.connector.jira;
+
+import com.google.inject.Inject;
+import com.google.inject.matcher.AbstractMatcher;
+import com.google.inject.matcher.Matcher;
+import java.lang.reflect.Method;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+/**
+ * Records the latency of {@link JiraDao} methods in the connector's metrics, with the method name as the operation.
+ */
+class JiraDaoMetricsInterceptor implements MethodInterceptor {
+
+  static final String COMPONENT = "jira_dao";
+
+  @Inject
+  private ConnectorMetrics metrics;
+
+  /**
+   * @return matches the methods of JiraDao itself, except those Guice calls to inject it
+   */
+  static Matcher<Method> daoMethods() {
+    return new AbstractMatcher<Method>() {
+      @Override
+      public boolean matches(final Method method) {
+        return method.getDeclaringClass() == JiraDao.class
+            && !method.isSynthetic()
+            && !method.isAnnotationPresent(Inject.class);
+      }
+    };
+  }
+
+  @Override
+  public Object invoke(final MethodInvocation invocation) throws Throwable {
+    final long start = System.nanoTime();
+    boolean failed = true;
+    try {
+      final Object result = invocation.proceed();
+      failed = false;
+      return result;
+    } finally {
+      metrics.recordLatency(COMPONENT, invocation.getMethod().getName(), System.nanoTime() - start, failed);
+    }
+  }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2026 Practice Insight Pty Ltd. All Rights Reserved.
+ */
+
+package io.wisetime.connector.jira;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts calls of one operation by duration, in fixed buckets from 1 millisecond to 30 seconds, along with the total
+ * duration and the number of calls that failed. Safe to record into from several threads.
+ */
+class LatencyHistogram {
+
+  // Upper bounds of the buckets in seconds, calls that take longer are only counted in the total
+  static final double[] BUCKET_BOUNDS = {0.001, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10, 30};
+
+  private final AtomicLongArray bucketCounts = new AtomicLongArray(BUCKET_BOUNDS.length);
+  private final LongAdder count = new LongAdder();
+  private final LongAdder totalNanos = new LongAdder();
+  private final LongAdder errors = new LongAdder();
+
+  void record(final long durationNanos, final boolean failed) {
+    final double seconds = durationNanos / (double) TimeUnit.SECONDS.toNanos(1);
+    for (int i = 0; i < BUCKET_BOUNDS.length; i++) {
+      if (seconds <= BUCKET_BOUNDS[i]) {
+        bucketCounts.incrementAndGet(i);
+        break;
+      }
+    }
+    count.increment();
+    totalNanos.add(durationNanos);
+    if (failed) {
+      errors.increment();
+    }
+  }
+
+  /**
+   * @return the number of calls that took at most as long as the upper bound of each bucket
+   */
+  long[] cumulativeBucketCounts() {
+    final long[] cumulative = new long[BUCKET_BOUNDS.length];
+    long sum = 0;
+    for (int i = 0; i < BUCKET_BOUNDS.length; i++) {
+      sum += bucketCounts.get(i);
+      cumulative[i] = sum;
+    }
+    return cumulative;
+  }
+
+  long count() {
+    return count.sum();
+  }
+
+  double totalSeconds() {
+    return totalNanos.sum() / (double) TimeUnit.SECONDS.toNanos(1);
+  }
+
+  long errors() {
+    return errors.sum();
+  }
+}
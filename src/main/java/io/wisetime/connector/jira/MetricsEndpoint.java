@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2026 Practice Insight Pty Ltd. All Rights Reserved.
+ */
+
+package io.wisetime.connector.jira;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Serves the connector's metrics over HTTP at {@code /metrics}, in the Prometheus text exposition format.
+ */
+class MetricsEndpoint {
+
+  private static final Logger log = LoggerFactory.getLogger(MetricsEndpoint.class);
+  private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+  private final ConnectorMetrics metrics;
+  private final HttpServer server;
+  private final ExecutorService executor = Executors.newSingleThreadExecutor(
+      new ThreadFactoryBuilder()
+          .setNameFormat("jira-metrics-endpoint-%d")
+          .setDaemon(true)
+          .build()
+  );
+
+  /**
+   * Starts serving the metrics on the address and port. Port 0 picks a free port.
+   */
+  MetricsEndpoint(final ConnectorMetrics metrics, final String bindAddress, final int port) throws IOException {
+    this.metrics = metrics;
+    server = HttpServer.create(new InetSocketAddress(bindAddress, port), 0);
+    server.createContext("/metrics", this::handle);
+    server.setExecutor(executor);
+    server.start();
+    log.info("Serving metrics at http://{}:{}/metrics", bindAddress, port());
+  }
+
+  int port() {
+    return server.getAddress().getPort();
+  }
+
+  void stop() {
+    server.stop(0);
+    executor.shutdownNow();
+  }
+
+  private void handle(final HttpExchange exchange) throws IOException {
+    try {
+      if (!"GET".equals(exchange.getRequestMethod())) {
+        exchange.sendResponseHeaders(405, -1);
+        return;
+      }
+      final byte[] body = metrics.prometheusText().getBytes(StandardCharsets.UTF_8);
+      exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+      exchange.sendResponseHeaders(200, body.length);
+      try (OutputStream out = exchange.getResponseBody()) {
+        out.write(body);
+      }
+    } catch (RuntimeException e) {
+      log.warn("Failed to serve metrics", e);
+      exchange.sendResponseHeaders(500, -1);
+    } finally {
+      exchange.close();
+    }
+  }
+}
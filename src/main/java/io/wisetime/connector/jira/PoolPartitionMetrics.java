@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2026 Practice Insight Pty Ltd. All Rights Reserved.
+ */
+
+package io.wisetime.connector.jira;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Collects how long callers wait for connections of one connection pool, and how many connections are in use.
+ *
+ * Set on the pool's configuration as its metrics tracker factory, then registered with the connector's metrics under
+ * a partition name. Wait times and counts are totals since the pool was created. Once registered, each wait is also
+ * recorded in the {@code db_pool} latency histogram.
+ */
+class PoolPartitionMetrics implements MetricsTrackerFactory {
+
+  private final AtomicLong acquisitions = new AtomicLong();
+  private final AtomicLong waitNanos = new AtomicLong();
+  private final AtomicLong timeouts = new AtomicLong();
+  private volatile PoolStats poolStats;
+  private volatile ConnectorMetrics metrics;
+  private volatile String partition;
+
+  @Override
+  public IMetricsTracker create(final String poolName, final PoolStats poolStats) {
+    this.poolStats = poolStats;
+    return new IMetricsTracker() {
+      @Override
+      public void recordConnectionAcquiredNanos(final long elapsedAcquiredNanos) {
+        acquisitions.incrementAndGet();
+        waitNanos.addAndGet(elapsedAcquiredNanos);
+        final ConnectorMetrics registeredMetrics = metrics;
+        if (registeredMetrics != null) {
+          registeredMetrics.recordLatency("db_pool", partition, elapsedAcquiredNanos, false);
+        }
+      }
+
+      @Override
+      public void recordConnectionTimeout() {
+        timeouts.incrementAndGet();
+      }
+    };
+  }
+
+  /**
+   * Registers gauges and counters named {@code db_pool_<partition>_<metric>}.
+   */
+  void registerGauges(final ConnectorMetrics metrics, final String partition) {
+    this.partition = partition;
+    this.metrics = metrics;
+    final String prefix = "db_pool_" + partition + "_";
+    metrics.registerGauge(prefix + "active_connections", () -> poolStats == null ? 0 : poolStats.getActiveConnections());
+    metrics.registerGauge(prefix + "pending_threads", () -> poolStats == null ? 0 : poolStats.getPendingThreads());
+    metrics.registerCounter(prefix + "acquisitions", acquisitions::get);
+    metrics.registerCounter(prefix + "wait_millis", () -> TimeUnit.NANOSECONDS.toMillis(waitNanos.get()));
+    metrics.registerCounter(prefix + "timeouts", timeouts::get);
+  }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2026 Practice Insight Pty Ltd. All Rights Reserved.
+ */
+
+package io.wisetime.connector.jira;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.io.CountingInputStream;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Remembers the IDs of the time groups that were committed to the Jira database, so that a time group that is
+ * delivered again, because WiseTime didn't receive the result of the first post, isn't posted twice.
+ *
+ * Group IDs are looked up in a hash map of group ID to the time it was posted, and persisted to an append only file
+ * of (posted at, group ID) records that is synced to disk after every post. Group IDs are forgotten once they are
+ * older than the retention period; the file is rewritten without them once it holds more than twice as many records
+ * as are retained. Without a file, group IDs are only kept in memory.
+ */
+class PostedTimeLedger {
+
+  private static final Logger log = LoggerFactory.getLogger(PostedTimeLedger.class);
+  private static final int MIN_RECORDS_BEFORE_COMPACTION = 10_000;
+  private static final Duration EXPIRY_INTERVAL = Duration.ofHours(1);
+
+  private final Optional<Path> file;
+  private final Duration retention;
+  // Epoch millis at which each group was posted, by group ID
+  private final Map<String, Long> postedGroups = new HashMap<>();
+  private long recordsInFile = 0;
+  private Instant expiredAt = Instant.EPOCH;
+  private FileOutputStream fileOut;
+  private DataOutputStream appender;
+
+  PostedTimeLedger(final Optional<Path> file, final Duration retention) {
+    this.file = file;
+    this.retention = retention;
+    file.ifPresent(this::load);
+  }
+
+  /**
+   * @return true if the time group was posted within the retention period
+   */
+  synchronized boolean contains(final String groupId) {
+    final Long postedAt = postedGroups.get(groupId);
+    return postedAt != null && !isExpired(postedAt, Instant.now());
+  }
+
+  /**
+   * Records that the time group was committed to the Jira database.
+   */
+  void add(final String groupId) {
+    add(groupId, Instant.now());
+  }
+
+  @VisibleForTesting
+  synchronized void add(final String groupId, final Instant postedAt) {
+    postedGroups.put(groupId, postedAt.toEpochMilli());
+    file.ifPresent(path -> append(path, groupId, postedAt.toEpochMilli()));
+    if (expiredAt.plus(EXPIRY_INTERVAL).isBefore(postedAt)) {
+      removeExpired(postedAt);
+    }
+    if (recordsInFile > Math.max((long) postedGroups.size() * 2, MIN_RECORDS_BEFORE_COMPACTION)) {
+      file.ifPresent(this::compact);
+    }
+  }
+
+  @VisibleForTesting
+  synchronized int size() {
+    return postedGroups.size();
+  }
+
+  private boolean isExpired(final long postedAt, final Instant now) {
+    return postedAt < now.minus(retention).toEpochMilli();
+  }
+
+  private void removeExpired(final Instant now) {
+    postedGroups.values().removeIf(postedAt -> isExpired(postedAt, now));
+    expiredAt = now;
+  }
+
+  private void load(final Path path) {
+    if (!Files.exists(path)) {
+      return;
+    }
+    long validLength = 0;
+    try (CountingInputStream counter = new CountingInputStream(new BufferedInputStream(Files.newInputStream(path)));
+        DataInputStream in = new DataInputStream(counter)) {
+      while (true) {
+        final long postedAt = in.readLong();
+        postedGroups.put(in.readUTF(), postedAt);
+        recordsInFile++;
+        validLength = counter.getCount();
+      }
+    } catch (EOFException e) {
+      log.info("Loaded {} posted time group IDs from {}", postedGroups.size(), path);
+    } catch (IOException e) {
+      log.warn("Failed to read all posted time group IDs from {}", path, e);
+    }
+    removeExpired(Instant.now());
+    // Also rewrite the file if its last record was only partially written, so that new records start on a boundary
+    if (recordsInFile > postedGroups.size() || validLength != fileSize(path)) {
+      compact(path);
+    }
+  }
+
+  private void append(final Path path, final String groupId, final long postedAt) {
+    try {
+      if (appender == null) {
+        fileOut = new FileOutputStream(path.toFile(), true);
+        appender = new DataOutputStream(new BufferedOutputStream(fileOut));
+      }
+      appender.writeLong(postedAt);
+      appender.writeUTF(groupId);
+      appender.flush();
+      // The record has to survive a crash right after the post was acknowledged
+      fileOut.getFD().sync();
+      recordsInFile++;
+    } catch (IOException e) {
+      // The group is still remembered in memory until the connector restarts
+      log.warn("Failed to save posted time group ID {} to {}", groupId, path, e);
+    }
+  }
+
+  private static long fileSize(final Path path) {
+    try {
+      return Files.size(path);
+    } catch (IOException e) {
+      return -1;
+    }
+  }
+
+  private void compact(final Path path) {
+    final Path compacted = path.resolveSibling(path.getFileName() + ".tmp");
+    try {
+      if (appender != null) {
+        appender.close();
+        appender = null;
+        fileOut = null;
+      }
+      try (FileOutputStream compactedOut = new FileOutputStream(compacted.toFile());
+          DataOutputStream out = new DataOutputStream(new BufferedOutputStream(compactedOut))) {
+        for (Map.Entry<String, Long> postedGroup : postedGroups.entrySet()) {
+          out.writeLong(postedGroup.getValue());
+          out.writeUTF(postedGroup.getKey());
+        }
+        out.flush();
+        compactedOut.getFD().sync();
+      }
+      Files.move(compacted, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      recordsInFile = postedGroups.size();
+    } catch (IOException e) {
+      log.warn("Failed to compact posted time group IDs in {}", path, e);
+    }
+  }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2026 Practice Insight Pty Ltd. All Rights Reserved.
+ */
+
+package io.wisetime.connector.jira;
+
+import static io.wisetime.connector.jira.JiraDao.Issue;
+
+import com.google.common.base.Preconditions;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Reads batches of Jira issues on a background thread, ahead of the consumer. At most {@code capacity} batches are held
+ * in memory; the producer blocks until the consumer catches up.
+ *
+ * Batches are handed over in the order they were produced. Once the producer is done, {@link #nextBatch()} returns an
+ * empty list. A producer failure is rethrown to the consumer after all batches read before the failure are consumed.
+ */
+class PrefetchingIssueReader implements AutoCloseable {
+
+  // Compared by identity, never handed out to the consumer
+  private static final List<Issue> END_OF_ISSUES = new ArrayList<>();
+
+  private final BlockingQueue<List<Issue>> queue;
+  private final Thread producerThread;
+  private volatile boolean closed = false;
+  private volatile RuntimeException producerFailure;
+  private boolean exhausted = false;
+
+  PrefetchingIssueReader(final String name, final int capacity, final IssueBatchProducer producer) {
+    Preconditions.checkArgument(capacity > 0, "Prefetch capacity must be positive");
+    queue = new ArrayBlockingQueue<>(capacity);
+    producerThread = new Thread(() -> {
+      try {
+        producer.produce(batch -> {
+          if (!batch.isEmpty() && !handOff(batch)) {
+            throw new CancellationException("Issue reader was closed");
+          }
+        });
+      } catch (CancellationException e) {
+        // Consumer is gone, nothing to report
+      } catch (RuntimeException e) {
+        producerFailure = e;
+      } finally {
+        handOff(END_OF_ISSUES);
+      }
+    }, name);
+    producerThread.setDaemon(true);
+    producerThread.start();
+  }
+
+  /**
+   * Blocks until the next batch is available.
+   *
+   * @return the next batch of issues, or an empty list if there are no more issues
+   */
+  List<Issue> nextBatch() {
+    if (exhausted) {
+      return new ArrayList<>();
+    }
+    final List<Issue> batch;
+    try {
+      batch = queue.take();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted while waiting for Jira issues", e);
+    }
+    if (batch == END_OF_ISSUES) {
+      exhausted = true;
+      if (producerFailure != null) {
+        throw producerFailure;
+      }
+      return new ArrayList<>();
+    }
+    return batch;
+  }
+
+  @Override
+  public void close() {
+    closed = true;
+    producerThread.interrupt();
+  }
+
+  private boolean handOff(final List<Issue> batch) {
+    try {
+      while (!closed) {
+        if (queue.offer(batch, 1, TimeUnit.SECONDS)) {
+          return true;
+        }
+      }
+    } catch (InterruptedException e) {
+      // Interrupted by close()
+    }
+    return false;
+  }
+
+  /**
+   * Produces consecutive batches of issues and passes each of them to the sink. The sink blocks while the reader is
+   * full.
+   */
+  @FunctionalInterface
+  interface IssueBatchProducer {
+    void produce(Consumer<List<Issue>> sink);
+  }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2026 Practice Insight Pty Ltd. All Rights Reserved.
+ */
+
+package io.wisetime.connector.jira;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Tells whether the read replica of the Jira database is recent enough to read from.
+ *
+ * The latest issue update time is used as a position in the replication stream, as creating or updating an issue
+ * moves it forward. The primary's position is sampled on a background thread at a fixed interval, together with the
+ * time of the sample. The replica is within the maximum lag if it has caught up with the newest sample that is at least
+ * that old. Until there is such a sample, the replica has to have caught up with the primary entirely. Callers only
+ * read the outcome of the last check, and never wait for the databases.
+ */
+class ReplicaLagGuard {
+
+  private static final Logger log = LoggerFactory.getLogger(ReplicaLagGuard.class);
+
+  private final Supplier<Instant> primaryLastUpdated;
+  private final Supplier<Instant> replicaLastUpdated;
+  private final Duration maxLag;
+  // Positions of the primary, oldest first, the first no older than needed. Only touched by the checking thread.
+  private final Deque<Sample> primarySamples = new ArrayDeque<>();
+  private ScheduledExecutorService checker;
+  private volatile boolean replicaUsable = false;
+
+  ReplicaLagGuard(final Supplier<Instant> primaryLastUpdated, final Supplier<Instant> replicaLastUpdated,
+                  final Duration maxLag) {
+    this.primaryLastUpdated = primaryLastUpdated;
+    this.replicaLastUpdated = replicaLastUpdated;
+    this.maxLag = maxLag;
+  }
+
+  /**
+   * Starts checking the lag of the replica at the interval. Reads go to the primary until the first check passes.
+   */
+  synchronized void start(final Duration checkInterval) {
+    checker = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+        .setNameFormat("jira-replica-lag-check-%d")
+        .setDaemon(true)
+        .build());
+    checker.scheduleWithFixedDelay(this::check, 0, checkInterval.toMillis(), TimeUnit.MILLISECONDS);
+  }
+
+  synchronized void stop() {
+    if (checker != null) {
+      checker.shutdownNow();
+    }
+  }
+
+  /**
+   * @return true if reads may go to the replica, as of the last check
+   */
+  boolean replicaUsable() {
+    return replicaUsable;
+  }
+
+  // Runs on the checking thread only, so neither the queries nor the samples hold up callers
+  @VisibleForTesting
+  void check() {
+    final boolean wasUsable = replicaUsable;
+    boolean usable;
+    try {
+      final Instant now = Instant.now();
+      primarySamples.addLast(new Sample(now, primaryLastUpdated.get()));
+      final Instant laggingBefore = now.minus(maxLag);
+      // Keep the newest sample that is old enough, and the ones after it
+      Sample oldEnough = null;
+      while (!primarySamples.isEmpty() && !primarySamples.getFirst().takenAt.isAfter(laggingBefore)) {
+        oldEnough = primarySamples.removeFirst();
+      }
+      final Sample reference;
+      if (oldEnough != null) {
+        primarySamples.addFirst(oldEnough);
+        reference = oldEnough;
+      } else {
+        reference = primarySamples.getLast();
+      }
+      usable = !replicaLastUpdated.get().isBefore(reference.lastUpdated);
+    } catch (RuntimeException e) {
+      log.warn("Failed to check the lag of the Jira read replica", e);
+      usable = false;
+    }
+    replicaUsable = usable;
+    if (wasUsable && !usable) {
+      log.warn("Jira read replica is more than {} behind, reading from the primary database", maxLag);
+    } else if (!wasUsable && usable) {
+      log.info("Reading from the Jira read replica");
+    }
+  }
+
+  private static class Sample {
+
+    private final Instant takenAt;
+    private final Instant lastUpdated;
+
+    Sample(final Instant takenAt, final Instant lastUpdated) {
+      this.takenAt = takenAt;
+      this.lastUpdated = lastUpdated;
+    }
+  }
+}
@@ -0,0 +1,303 @@
+/*
+ * Copyright (c) 2026 Practice Insight Pty Ltd. All Rights Reserved.
+ */
+
+package io.wisetime.connector.jira;
+
+import static io.wisetime.connector.jira.JiraDao.Issue;
+
+import com.google.common.io.ByteStreams;
+import com.google.common.io.CountingInputStream;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.roaringbitmap.longlong.PeekableLongIterator;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Remembers the IDs and keys of the Jira issues that were synced to WiseTime, so that tags of issues that are later
+ * deleted from Jira can be found and deleted too.
+ *
+ * IDs are held in a compressed bitmap, which takes a few megabytes for tens of millions of mostly consecutive IDs.
+ * Issue keys are only needed for deleted issues, so they stay on disk in an append only log of (ID, key) records.
+ * The bitmap file records how much of the log it covers, and the rest of the log is replayed on load. This way the
+ * bitmap only needs to be written now and then, while the log is appended to after every batch.
+ *
+ * An issue that moves to another project keeps its ID but gets a new key. The keys of issues that were synced before
+ * are held until the next save, and then compared with the log in a single pass. A record is appended for each key
+ * that changed, and the last record of an ID wins.
+ */
+class SyncedIssueIndex {
+
+  private static final Logger log = LoggerFactory.getLogger(SyncedIssueIndex.class);
+
+  private final Path bitmapFile;
+  private final Path keysFile;
+  private final Roaring64Bitmap syncedIds = new Roaring64Bitmap();
+  // Keys of issues synced again since the last save, that may differ from the keys in the log
+  private final Map<Long, String> uncheckedKeys = new HashMap<>();
+  private DataOutputStream keysAppender;
+  private long keyRecords = 0;
+  private boolean modified = false;
+
+  SyncedIssueIndex(final Path bitmapFile, final Path keysFile) {
+    this.bitmapFile = bitmapFile;
+    this.keysFile = keysFile;
+    load();
+  }
+
+  /**
+   * Records issues that were upserted to WiseTime. Keys of issues that were already recorded are checked for moves on
+   * the next save.
+   */
+  synchronized void addAll(final Collection<Issue> issues) {
+    try {
+      for (Issue issue : issues) {
+        if (syncedIds.contains(issue.getId())) {
+          uncheckedKeys.put(issue.getId(), issue.getKey());
+        } else {
+          syncedIds.addLong(issue.getId());
+          keysAppender().writeLong(issue.getId());
+          keysAppender().writeUTF(issue.getKey());
+          keyRecords++;
+          modified = true;
+        }
+      }
+      keysAppender().flush();
+    } catch (IOException e) {
+      throw new RuntimeException("Failed to save synced issue keys to " + keysFile, e);
+    }
+  }
+
+  /**
+   * @return up to {@code limit} synced issue IDs greater than {@code afterId}, in ascending order
+   */
+  synchronized List<Long> syncedIdsAfter(final long afterId, final int limit) {
+    final List<Long> ids = new ArrayList<>(limit);
+    final PeekableLongIterator iterator = syncedIds.getLongIteratorFrom(afterId + 1);
+    while (iterator.hasNext() && ids.size() < limit) {
+      ids.add(iterator.next());
+    }
+    return ids;
+  }
+
+  /**
+   * Reads the keys of the given issues from the log, taking keys that are yet to be checked for moves over it.
+   *
+   * @return the last recorded issue keys by issue ID, leaving out IDs that were never recorded
+   */
+  synchronized Map<Long, String> findKeys(final Set<Long> issueIds) {
+    final Map<Long, String> keys = new HashMap<>();
+    try {
+      if (keysAppender != null) {
+        keysAppender.flush();
+      }
+      readKeys(0, (issueId, key) -> {
+        if (issueIds.contains(issueId)) {
+          keys.put(issueId, key);
+        }
+      });
+    } catch (IOException e) {
+      throw new RuntimeException("Failed to read synced issue keys from " + keysFile, e);
+    }
+    issueIds.forEach(issueId -> {
+      final String uncheckedKey = uncheckedKeys.get(issueId);
+      if (uncheckedKey != null && syncedIds.contains(issueId)) {
+        keys.put(issueId, uncheckedKey);
+      }
+    });
+    return keys;
+  }
+
+  synchronized void removeAll(final Collection<Long> issueIds) {
+    issueIds.forEach(syncedIds::removeLong);
+    issueIds.forEach(uncheckedKeys::remove);
+    modified = true;
+  }
+
+  synchronized long size() {
+    return syncedIds.getLongCardinality();
+  }
+
+  /**
+   * Appends the keys of issues that moved to the log, then writes the bitmap to disk if it changed. The key log is
+   * rewritten first if most of its records are of issues that
+   * were removed.
+   */
+  synchronized void save() {
+    appendMovedKeys();
+    if (!modified) {
+      return;
+    }
+    try {
+      if (keysAppender != null) {
+        keysAppender.close();
+        keysAppender = null;
+      }
+      if (keyRecords > Math.max(syncedIds.getLongCardinality() * 2, 10_000)) {
+        compactKeys();
+      }
+      final long keysFileLength = Files.exists(keysFile) ? Files.size(keysFile) : 0;
+      final Path tempFile = bitmapFile.resolveSibling(bitmapFile.getFileName() + ".tmp");
+      syncedIds.runOptimize();
+      try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+        out.writeLong(keysFileLength);
+        out.writeLong(keyRecords);
+        syncedIds.serialize(out);
+      }
+      Files.move(tempFile, bitmapFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      modified = false;
+    } catch (IOException e) {
+      // The log still has everything, it is replayed on the next load
+      log.warn("Failed to save synced issue IDs to {}", bitmapFile, e);
+    }
+  }
+
+  private void appendMovedKeys() {
+    if (uncheckedKeys.isEmpty()) {
+      return;
+    }
+    try {
+      if (keysAppender != null) {
+        keysAppender.flush();
+      }
+      final Map<Long, String> loggedKeys = new HashMap<>();
+      readKeys(0, (issueId, key) -> {
+        if (uncheckedKeys.containsKey(issueId)) {
+          loggedKeys.put(issueId, key);
+        }
+      });
+      int moved = 0;
+      for (Map.Entry<Long, String> uncheckedKey : uncheckedKeys.entrySet()) {
+        if (!uncheckedKey.getValue().equals(loggedKeys.get(uncheckedKey.getKey()))) {
+          keysAppender().writeLong(uncheckedKey.getKey());
+          keysAppender().writeUTF(uncheckedKey.getValue());
+          keyRecords++;
+          moved++;
+        }
+      }
+      keysAppender().flush();
+      uncheckedKeys.clear();
+      if (moved > 0) {
+        log.info("Recorded the new keys of {} moved issues", moved);
+        modified = true;
+      }
+    } catch (IOException e) {
+      // The keys stay unchecked and are tried again on the next save
+      log.warn("Failed to save moved issue keys to {}", keysFile, e);
+    }
+  }
+
+  private void load() {
+    long keysFileOffset = 0;
+    if (Files.exists(bitmapFile)) {
+      try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(bitmapFile)))) {
+        keysFileOffset = in.readLong();
+        keyRecords = in.readLong();
+        syncedIds.deserialize(in);
+      } catch (IOException e) {
+        log.warn("Failed to read synced issue IDs from {}, rebuilding them from {}", bitmapFile, keysFile, e);
+        syncedIds.clear();
+        keysFileOffset = 0;
+        keyRecords = 0;
+      }
+    }
+    try {
+      if (Files.exists(keysFile) && keysFileOffset > Files.size(keysFile)) {
+        log.warn("{} is shorter than expected, rebuilding synced issue IDs from it", keysFile);
+        syncedIds.clear();
+        keysFileOffset = 0;
+        keyRecords = 0;
+      }
+      final long[] replayed = {0};
+      final long keysFileEnd = readKeys(keysFileOffset, (issueId, key) -> {
+        syncedIds.addLong(issueId);
+        replayed[0]++;
+      });
+      if (Files.exists(keysFile) && keysFileEnd < Files.size(keysFile)) {
+        // Drop a record that was only partially written, so that new records are appended at a record boundary
+        try (FileChannel channel = FileChannel.open(keysFile, StandardOpenOption.WRITE)) {
+          channel.truncate(keysFileEnd);
+        }
+      }
+      keyRecords += replayed[0];
+      modified = replayed[0] > 0;
+    } catch (IOException e) {
+      log.warn("Failed to read synced issue keys from {}", keysFile, e);
+    }
+    log.info("Loaded {} synced issue IDs from {}", syncedIds.getLongCardinality(), bitmapFile);
+  }
+
+  /**
+   * Reads the key log from {@code offset} to the end.
+   *
+   * @return the position after the last complete record
+   */
+  private long readKeys(final long offset, final KeyRecordConsumer consumer) throws IOException {
+    if (!Files.exists(keysFile)) {
+      return 0;
+    }
+    try (CountingInputStream counter = new CountingInputStream(new BufferedInputStream(Files.newInputStream(keysFile)));
+        DataInputStream in = new DataInputStream(counter)) {
+      ByteStreams.skipFully(in, offset);
+      while (true) {
+        final long recordStart = counter.getCount();
+        final long issueId;
+        final String key;
+        try {
+          issueId = in.readLong();
+          key = in.readUTF();
+        } catch (EOFException e) {
+          // End of the log, or a record that was only partially written
+          return recordStart;
+        }
+        consumer.accept(issueId, key);
+      }
+    }
+  }
+
+  private void compactKeys() throws IOException {
+    final Path tempFile = keysFile.resolveSibling(keysFile.getFileName() + ".tmp");
+    final long[] liveRecords = {0};
+    try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+      readKeys(0, (issueId, key) -> {
+        if (syncedIds.contains(issueId)) {
+          out.writeLong(issueId);
+          out.writeUTF(key);
+          liveRecords[0]++;
+        }
+      });
+    }
+    Files.move(tempFile, keysFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    keyRecords = liveRecords[0];
+  }
+
+  private DataOutputStream keysAppender() throws IOException {
+    if (keysAppender == null) {
+      keysAppender = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(keysFile,
+          StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)));
+    }
+    return keysAppender;
+  }
+
+  @FunctionalInterface
+  private interface KeyRecordConsumer {
+    void accept(long issueId, String key) throws IOException;
+  }
+}
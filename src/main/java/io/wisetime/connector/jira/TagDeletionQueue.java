@@ -0,0 +1,242 @@
+/*
+ * Copyright (c) 2026 Practice Insight Pty Ltd. All Rights Reserved.
+ */
+
+package io.wisetime.connector.jira;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.wisetime.connector.api_client.ApiClient;
+import io.wisetime.generated.connect.DeleteTagRequest;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Deletes WiseTime tags in the background, so that callers don't wait for the WiseTime API or fail when it is
+ * unavailable.
+ *
+ * Tag names are collected for a short while and then deleted together, and a name is only deleted once however often
+ * it is queued. Deletions that fail are retried with exponential backoff. Pending tag names are persisted to a file,
+ * so that they are deleted after a restart. Without a file, they are only kept in memory.
+ *
+ * An I/O error is taken as transient, and the tag is retried after the others. If it keeps failing while other tags
+ * are deleted, the fault is with the tag and it is dropped. Other errors are permanent, and the tag is dropped at once.
+ */
+class TagDeletionQueue {
+
+  private static final Logger log = LoggerFactory.getLogger(TagDeletionQueue.class);
+  // Consecutive failures after which the WiseTime API is taken to be unavailable
+  private static final int MAX_CONSECUTIVE_FAILURES = 3;
+  // Failed attempts after which a tag is dropped, counting only runs in which other tags were deleted
+  private static final int MAX_ATTEMPTS = 5;
+
+  private final ApiClient apiClient;
+  private final Optional<Path> file;
+  private final Duration linger;
+  private final Duration maxBackoff;
+  private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(
+      new ThreadFactoryBuilder()
+          .setNameFormat("jira-tag-deletion-%d")
+          .setDaemon(true)
+          .build()
+  );
+  private final Set<String> pendingTagNames = new LinkedHashSet<>();
+  private final Map<String, Integer> failedAttempts = new HashMap<>();
+  private boolean scheduled = false;
+  private Duration backoff = Duration.ZERO;
+
+  TagDeletionQueue(final ApiClient apiClient, final Optional<Path> file, final Duration linger,
+                   final Duration maxBackoff) {
+    this.apiClient = apiClient;
+    this.file = file;
+    this.linger = linger;
+    this.maxBackoff = maxBackoff;
+    file.ifPresent(this::load);
+    synchronized (this) {
+      scheduleDeletion();
+    }
+  }
+
+  /**
+   * Queues the tags for deletion.
+   */
+  synchronized void addAll(final Collection<String> tagNames) {
+    if (pendingTagNames.addAll(tagNames)) {
+      save();
+      scheduleDeletion();
+    }
+  }
+
+  synchronized int size() {
+    return pendingTagNames.size();
+  }
+
+  /**
+   * Stops deleting tags. Tags that are still pending are deleted after the next start if they were persisted.
+   */
+  void shutdown() {
+    executor.shutdownNow();
+  }
+
+  /**
+   * Deletes the pending tags. Tags that failed transiently are moved to the end of the queue. Stops once several
+   * deletions in a row failed.
+   *
+   * @return true if all pending tags were deleted or dropped
+   */
+  @VisibleForTesting
+  boolean deletePending() {
+    final List<String> tagNames;
+    synchronized (this) {
+      tagNames = new ArrayList<>(pendingTagNames);
+    }
+    final List<String> failedTagNames = new ArrayList<>();
+    int deleted = 0;
+    int consecutiveFailures = 0;
+    try {
+      for (String tagName : tagNames) {
+        try {
+          apiClient.tagDelete(new DeleteTagRequest().name(tagName));
+          deleted++;
+          consecutiveFailures = 0;
+          remove(tagName);
+        } catch (IOException e) {
+          log.warn("Failed to delete tag {}, it will be retried", tagName, e);
+          failedTagNames.add(tagName);
+          if (++consecutiveFailures >= MAX_CONSECUTIVE_FAILURES) {
+            break;
+          }
+        } catch (RuntimeException e) {
+          log.error("Failed to delete tag {}, it won't be retried", tagName, e);
+          remove(tagName);
+        }
+      }
+      if (deleted > 0) {
+        log.info("Deleted {} {} not found in Jira", deleted, deleted > 1 ? "tags" : "tag");
+      }
+      int retried = 0;
+      synchronized (this) {
+        for (String tagName : failedTagNames) {
+          if (retryLast(tagName, deleted > 0)) {
+            retried++;
+          }
+        }
+      }
+      if (retried > 0) {
+        log.warn("Failed to delete {} {}, {} deletions pending", retried, retried > 1 ? "tags" : "tag", size());
+      }
+      return retried == 0;
+    } finally {
+      synchronized (this) {
+        save();
+      }
+    }
+  }
+
+  private synchronized void remove(final String tagName) {
+    pendingTagNames.remove(tagName);
+    failedAttempts.remove(tagName);
+  }
+
+  /**
+   * Moves the tag to the end of the queue, or drops it if it failed too often while other tags could be deleted.
+   *
+   * @return true if the tag will be retried
+   */
+  // Must be called while holding the lock
+  private boolean retryLast(final String tagName, final boolean othersDeleted) {
+    if (!pendingTagNames.remove(tagName)) {
+      return false;
+    }
+    final int attempts = othersDeleted ? failedAttempts.merge(tagName, 1, Integer::sum) : 0;
+    if (attempts >= MAX_ATTEMPTS) {
+      log.error("Giving up deleting tag {} after {} failed attempts", tagName, attempts);
+      failedAttempts.remove(tagName);
+      return false;
+    }
+    pendingTagNames.add(tagName);
+    return true;
+  }
+
+  private void runDeletion() {
+    final boolean deleted = deletePending();
+    synchronized (this) {
+      scheduled = false;
+      if (deleted) {
+        backoff = Duration.ZERO;
+      } else {
+        backoff = backoff.isZero() ? linger : backoff.multipliedBy(2);
+        if (backoff.compareTo(maxBackoff) > 0) {
+          backoff = maxBackoff;
+        }
+      }
+      scheduleDeletion();
+    }
+  }
+
+  // Must be called while holding the lock
+  private void scheduleDeletion() {
+    if (scheduled || pendingTagNames.isEmpty() || executor.isShutdown()) {
+      return;
+    }
+    final Duration delay = backoff.isZero() ? linger : backoff;
+    executor.schedule(this::runDeletion, delay.toMillis(), TimeUnit.MILLISECONDS);
+    scheduled = true;
+  }
+
+  private void load(final Path path) {
+    if (!Files.exists(path)) {
+      return;
+    }
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+      while (true) {
+        pendingTagNames.add(in.readUTF());
+      }
+    } catch (EOFException e) {
+      log.info("Loaded {} pending tag deletions from {}", pendingTagNames.size(), path);
+    } catch (IOException e) {
+      log.warn("Failed to read all pending tag deletions from {}", path, e);
+    }
+  }
+
+  // Must be called while holding the lock
+  private void save() {
+    if (!file.isPresent()) {
+      return;
+    }
+    final Path path = file.get();
+    final Path tempFile = path.resolveSibling(path.getFileName() + ".tmp");
+    try {
+      try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+        for (String tagName : pendingTagNames) {
+          out.writeUTF(tagName);
+        }
+      }
+      Files.move(tempFile, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      // The tags are still deleted unless the connector restarts first
+      log.warn("Failed to save pending tag deletions to {}", path, e);
+    }
+  }
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2026 Practice Insight Pty Ltd. All Rights Reserved.
+ */
+
+package io.wisetime.connector.jira;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import lombok.Data;
+import lombok.experimental.Accessors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * In memory copy of the Jira user directory, to find the Jira user that posted time without querying the database.
+ *
+ * The copy is loaded in full when first used and again when it is older than the reload interval, which also drops
+ * users that were deleted. In between, users updated since the last refresh are read by their update time once the
+ * refresh interval has passed. A user that isn't found is looked up in the database directly, as the user may have
+ * been created since the last refresh.
+ *
+ * User names and email addresses are not case sensitive. If several users share an email address, an active user is
+ * preferred.
+ */
+class UserDirectory {
+
+  private static final Logger log = LoggerFactory.getLogger(UserDirectory.class);
+
+  private final BiConsumer<Instant, Consumer<DirectoryUser>> usersUpdatedSince;
+  private final Function<String, List<DirectoryUser>> usersByNameOrEmail;
+  private final Duration refreshInterval;
+  private final Duration reloadInterval;
+  private volatile Snapshot snapshot;
+
+  /**
+   * @param usersUpdatedSince  passes the users updated at or after a time, or all users if the time is null
+   * @param usersByNameOrEmail finds the users whose lower case user name or email address is the given value
+   */
+  UserDirectory(final BiConsumer<Instant, Consumer<DirectoryUser>> usersUpdatedSince,
+                final Function<String, List<DirectoryUser>> usersByNameOrEmail,
+                final Duration refreshInterval, final Duration reloadInterval) {
+    this.usersUpdatedSince = usersUpdatedSince;
+    this.usersByNameOrEmail = usersByNameOrEmail;
+    this.refreshInterval = refreshInterval;
+    this.reloadInterval = reloadInterval;
+  }
+
+  boolean userExists(final String userName) {
+    final String lowerUserName = userName.toLowerCase();
+    return lookup(lowerUserName, snapshot -> snapshot.idsByName.get(lowerUserName)).isPresent();
+  }
+
+  /**
+   * @return the user name of the user with the email address
+   */
+  Optional<String> findUsernameByEmail(final String email) {
+    final String lowerEmail = email.toLowerCase();
+    return lookup(lowerEmail, snapshot -> snapshot.idsByEmail.get(lowerEmail))
+        .map(DirectoryUser::getUserName);
+  }
+
+  /**
+   * Discards the copy. It is loaded again on the next lookup.
+   */
+  void invalidate() {
+    snapshot = null;
+  }
+
+  private Optional<DirectoryUser> lookup(final String lowerNameOrEmail, final Function<Snapshot, Long> idGetter) {
+    final Snapshot current = current();
+    final Long userId = idGetter.apply(current);
+    if (userId != null) {
+      return Optional.ofNullable(current.usersById.get(userId));
+    }
+    final List<DirectoryUser> foundUsers = usersByNameOrEmail.apply(lowerNameOrEmail);
+    synchronized (this) {
+      foundUsers.forEach(current::put);
+    }
+    return Optional.ofNullable(idGetter.apply(current)).map(current.usersById::get);
+  }
+
+  private Snapshot current() {
+    final Snapshot current = snapshot;
+    final Instant now = Instant.now();
+    if (current == null || current.loadedAt.plus(reloadInterval).isBefore(now)) {
+      return reload(current);
+    }
+    if (!current.refreshedAt.plus(refreshInterval).isAfter(now)) {
+      refresh(current);
+    }
+    return current;
+  }
+
+  private synchronized Snapshot reload(final Snapshot stale) {
+    if (snapshot != stale) {
+      // Another thread reloaded in the meantime
+      return snapshot;
+    }
+    final Snapshot loaded = new Snapshot();
+    usersUpdatedSince.accept(null, loaded::put);
+    log.debug("Loaded {} Jira users", loaded.usersById.size());
+    snapshot = loaded;
+    return loaded;
+  }
+
+  private synchronized void refresh(final Snapshot current) {
+    if (current.refreshedAt.plus(refreshInterval).isAfter(Instant.now())) {
+      // Another thread refreshed in the meantime
+      return;
+    }
+    final Instant refreshedAt = Instant.now();
+    if (current.lastUpdated != null) {
+      usersUpdatedSince.accept(current.lastUpdated, current::put);
+    } else {
+      // No user has an update time, so there is no way to tell which users changed
+      usersUpdatedSince.accept(null, current::put);
+    }
+    current.refreshedAt = refreshedAt;
+  }
+
+  /**
+   * A Jira user, from the cwd_user table.
+   */
+  @Data
+  @Accessors(chain = true)
+  static class DirectoryUser {
+
+    private long id;
+    private String userName;
+    private String lowerUserName;
+    private String lowerEmailAddress;
+    private boolean active;
+    private Instant updated;
+  }
+
+  /**
+   * Loaded copy of the user directory. Modified while holding the lock of the directory, and read without it.
+   */
+  private static class Snapshot {
+
+    private final Map<Long, DirectoryUser> usersById = new ConcurrentHashMap<>();
+    private final Map<String, Long> idsByName = new ConcurrentHashMap<>();
+    private final Map<String, Long> idsByEmail = new ConcurrentHashMap<>();
+    private final Instant loadedAt = Instant.now();
+    private volatile Instant refreshedAt = loadedAt;
+    // Latest update time of any user, as recorded by the database
+    private Instant lastUpdated;
+
+    void put(final DirectoryUser user) {
+      final DirectoryUser previous = usersById.put(user.getId(), user);
+      if (previous != null) {
+        // The user may have been renamed or changed email address
+        if (previous.getLowerUserName() != null) {
+          idsByName.remove(previous.getLowerUserName(), previous.getId());
+        }
+        if (previous.getLowerEmailAddress() != null) {
+          idsByEmail.remove(previous.getLowerEmailAddress(), previous.getId());
+        }
+      }
+      if (user.getLowerUserName() != null) {
+        idsByName.put(user.getLowerUserName(), user.getId());
+      }
+      if (user.getLowerEmailAddress() != null) {
+        final Long otherUserId = idsByEmail.get(user.getLowerEmailAddress());
+        final DirectoryUser otherUser = otherUserId == null ? null : usersById.get(otherUserId);
+        if (otherUser == null || user.isActive() || !otherUser.isActive()) {
+          idsByEmail.put(user.getLowerEmailAddress(), user.getId());
+        }
+      }
+      if (user.getUpdated() != null && (lastUpdated == null || user.getUpdated().isAfter(lastUpdated))) {
+        lastUpdated = user.getUpdated();
+      }
+    }
+  }
+}
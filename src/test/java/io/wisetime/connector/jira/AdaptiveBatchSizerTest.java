@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2026 Practice Insight Pty Ltd. All Rights Reserved.
+ */
+
+package io.wisetime.connector.jira;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class AdaptiveBatchSizerTest {
+
+  @Test
+  void initial_batch_size_within_bounds() {
+    assertThat(new AdaptiveBatchSizer(10, 100, 200).batchSize())
+        .as("Initial batch size should be capped at the maximum")
+        .isEqualTo(100);
+    assertThat(new AdaptiveBatchSizer(10, 100, 5).batchSize())
+        .as("Initial batch size should be raised to the minimum")
+        .isEqualTo(10);
+    assertThatThrownBy(() -> new AdaptiveBatchSizer(100, 10, 50))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void grows_while_latency_is_flat() {
+    final AdaptiveBatchSizer sizer = new AdaptiveBatchSizer(10, 210, 50);
+    for (int i = 0; i < 3; i++) {
+      sizer.onSuccess(sizer.batchSize(), TimeUnit.MILLISECONDS.toNanos(sizer.batchSize()));
+    }
+    assertThat(sizer.batchSize())
+        .as("Batch size should grow by a fixed step per call while latency per tag stays the same")
+        .isEqualTo(80);
+
+    for (int i = 0; i < 100; i++) {
+      sizer.onSuccess(sizer.batchSize(), TimeUnit.MILLISECONDS.toNanos(sizer.batchSize()));
+    }
+    assertThat(sizer.batchSize())
+        .as("Batch size should not grow past the maximum")
+        .isEqualTo(210);
+  }
+
+  @Test
+  void backs_off_on_slow_calls() {
+    final AdaptiveBatchSizer sizer = new AdaptiveBatchSizer(10, 210, 100);
+    sizer.onSuccess(100, TimeUnit.MILLISECONDS.toNanos(100));
+    assertThat(sizer.batchSize()).isEqualTo(110);
+
+    sizer.onSuccess(110, TimeUnit.MILLISECONDS.toNanos(1100));
+    assertThat(sizer.batchSize())
+        .as("Batch size should be halved after a slow call")
+        .isEqualTo(55);
+  }
+
+  @Test
+  void backs_off_on_failures() {
+    final AdaptiveBatchSizer sizer = new AdaptiveBatchSizer(10, 210, 100);
+    sizer.onFailure();
+    assertThat(sizer.batchSize())
+        .as("Batch size should be halved after a failure")
+        .isEqualTo(50);
+
+    for (int i = 0; i < 10; i++) {
+      sizer.onFailure();
+    }
+    assertThat(sizer.batchSize())
+        .as("Batch size should not shrink below the minimum")
+        .isEqualTo(10);
+  }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2026 Practice Insight Pty Ltd. All Rights Reserved.
+ */
+
+package io.wisetime.connector.jira;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import io.wisetime.connector.api_client.ApiClient;
+import io.wisetime.generated.connect.DeleteTagRequest;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class ConnectorMetricsTest {
+
+  private final ConnectorMetrics metrics = new ConnectorMetrics();
+
+  @Test
+  void prometheusText() {
+    metrics.registerGauge("pending_tag_deletions", () -> 3);
+    metrics.registerCounter("db_pool_scan_timeouts", () -> 2);
+    metrics.recordLatency("jira_dao", "issueCount", TimeUnit.MILLISECONDS.toNanos(3), false);
+    metrics.recordLatency("jira_dao", "issueCount", TimeUnit.MILLISECONDS.toNanos(200), true);
+
+    assertThat(metrics.prometheusText())
+        .contains("# TYPE wisetime_jira_pending_tag_deletions gauge\nwisetime_jira_pending_tag_deletions 3\n")
+        .contains("# TYPE wisetime_jira_db_pool_scan_timeouts_total counter\nwisetime_jira_db_pool_scan_timeouts_total 2\n")
+        .contains("# TYPE wisetime_jira_jira_dao_duration_seconds histogram\n")
+        .contains("wisetime_jira_jira_dao_duration_seconds_bucket{operation=\"issueCount\",le=\"0.001\"} 0\n")
+        .contains("wisetime_jira_jira_dao_duration_seconds_bucket{operation=\"issueCount\",le=\"0.005\"} 1\n")
+        .contains("wisetime_jira_jira_dao_duration_seconds_bucket{operation=\"issueCount\",le=\"0.25\"} 2\n")
+        .contains("wisetime_jira_jira_dao_duration_seconds_bucket{operation=\"issueCount\",le=\"+Inf\"} 2\n")
+        .contains("wisetime_jira_jira_dao_duration_seconds_sum{operation=\"issueCount\"} 0.203\n")
+        .contains("wisetime_jira_jira_dao_duration_seconds_count{operation=\"issueCount\"} 2\n")
+        .contains("wisetime_jira_jira_dao_errors_total{operation=\"issueCount\"} 1\n");
+  }
+
+  @Test
+  void timed_records_calls_and_failures() throws Exception {
+    final ApiClient apiClient = mock(ApiClient.class);
+    final IOException failure = new IOException("Test failure");
+    doThrow(failure).when(apiClient).tagUpsertBatch(any());
+    final ApiClient timedApiClient = metrics.timed(ApiClient.class, "wisetime_api", apiClient);
+
+    timedApiClient.tagDelete(new DeleteTagRequest().name("tag"));
+    assertThatThrownBy(() -> timedApiClient.tagUpsertBatch(null))
+        .as("The exception of the call should be thrown as is")
+        .isSameAs(failure);
+
+    verify(apiClient).tagDelete(new DeleteTagRequest().name("tag"));
+    assertThat(metrics.prometheusText())
+        .contains("wisetime_jira_wisetime_api_duration_seconds_count{operation=\"tagDelete\"} 1\n")
+        .contains("wisetime_jira_wisetime_api_errors_total{operation=\"tagDelete\"} 0\n")
+        .contains("wisetime_jira_wisetime_api_errors_total{operation=\"tagUpsertBatch\"} 1\n");
+  }
+
+  @Test
+  void metricsEndpoint_serves_prometheus_text() throws Exception {
+    metrics.registerGauge("synced_issue_ids", () -> 42);
+    final MetricsEndpoint endpoint = new MetricsEndpoint(metrics, "127.0.0.1", 0);
+    try {
+      final HttpURLConnection connection = (HttpURLConnection)
+          new URL("http://127.0.0.1:" + endpoint.port() + "/metrics").openConnection();
+      assertThat(connection.getResponseCode())
+          .isEqualTo(200);
+      assertThat(connection.getContentType())
+          .startsWith("text/plain");
+      try (InputStream in = connection.getInputStream()) {
+        assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8))
+            .isEqualTo(metrics.prometheusText());
+      }
+    } finally {
+      endpoint.stop();
+    }
+  }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2026 Practice Insight Pty Ltd. All Rights Reserved.
+ */
+
+package io.wisetime.connector.jira;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.vdurmont.emoji.EmojiManager;
+import com.vdurmont.emoji.EmojiParser;
+import org.junit.jupiter.api.Test;
+
+@SuppressWarnings("AvoidEscapedUnicodeCharacters")
+class EmojiStripperTest {
+
+  @Test
+  void removeAllEmojis_same_as_emoji_parser() {
+    EmojiManager.getAll().forEach(emoji -> {
+      final String text = "Before " + emoji.getUnicode() + " after";
+      assertThat(EmojiStripper.removeAllEmojis(text))
+          .as("Emoji %s should be removed", emoji.getAliases())
+          .isEqualTo(EmojiParser.removeAllEmojis(text));
+    });
+  }
+
+  @Test
+  void removeAllEmojis_sequences() {
+    // Family joined with zero width joiners, thumbs up with skin tone, flag, keycap
+    final String text = "a\uD83D\uDC68\u200D\uD83D\uDC69\u200D\uD83D\uDC67b\uD83D\uDC4D\uD83C\uDFFDc"
+        + "\uD83C\uDDE6\uD83C\uDDFAd1\uFE0F\u20E3e";
+    assertThat(EmojiStripper.removeAllEmojis(text))
+        .isEqualTo("abcde");
+  }
+
+  @Test
+  void removeAllEmojis_keeps_text() {
+    final String text = "Plain ASCII |row|N/A| 12# \u65E5\u672C\u8A9E \u00DCn\u00EFc\u00F6d\u00E9 \u0915\u094D\u200D\u0937";
+    assertThat(EmojiStripper.removeAllEmojis(text))
+        .as("Text without emojis, including zero width joiners between letters, should be left alone")
+        .isEqualTo(text);
+    assertThat(EmojiStripper.removeAllEmojis(null))
+        .isNull();
+  }
+
+  @Test
+  void removeAllEmojis_keeps_symbols_that_are_not_emojis() {
+    // Check mark, star, dingbat digit one, ballot box and eighth note
+    final String text = "Done \u2713 rated \u2605 step \u2776 \u2610 \u266A";
+    assertThat(EmojiStripper.removeAllEmojis(text))
+        .isEqualTo(text);
+    assertThat(EmojiStripper.removeAllEmojis("Done \u2714 sunny \u2600"))
+        .as("Heavy check mark and sun are emojis")
+        .isEqualTo("Done  sunny ");
+  }
+}
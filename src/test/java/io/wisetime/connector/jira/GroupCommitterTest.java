@@ -0,0 +1,187 @@
+/*
+ * Copyright (c) 2026 Practice Insight Pty Ltd. All Rights Reserved.
+ */
+
+package io.wisetime.connector.jira;
+
+import static com.google.common.util.concurrent.Uninterruptibles.awaitUninterruptibly;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+class GroupCommitterTest {
+
+  @Test
+  void concurrent_writes_share_a_commit() throws Exception {
+    final List<Integer> groupSizes = Collections.synchronizedList(new ArrayList<>());
+    final AtomicInteger applied = new AtomicInteger();
+    final GroupCommitter committer = new GroupCommitter(writes -> {
+      groupSizes.add(writes.size());
+      writes.forEach(Runnable::run);
+      return writes.stream().map(write -> Optional.<RuntimeException>empty()).collect(Collectors.toList());
+    }, Duration.ofSeconds(10), 4);
+
+    final ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      final CountDownLatch started = new CountDownLatch(4);
+      final List<Future<?>> posts = new ArrayList<>();
+      for (int i = 0; i < 4; i++) {
+        posts.add(executor.submit(() -> committer.participate(() -> {
+          started.countDown();
+          awaitUninterruptibly(started);
+          committer.apply(applied::incrementAndGet);
+          return null;
+        })));
+      }
+      for (Future<?> post : posts) {
+        post.get(5, TimeUnit.SECONDS);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertThat(applied)
+        .hasValue(4);
+    assertThat(groupSizes)
+        .as("A full group should be committed without waiting out the linger time")
+        .containsExactly(4);
+  }
+
+  @Test
+  void write_without_other_participants_is_committed_at_once() {
+    final List<Integer> groupSizes = new ArrayList<>();
+    final GroupCommitter committer = new GroupCommitter(writes -> {
+      groupSizes.add(writes.size());
+      return writes.stream().map(write -> Optional.<RuntimeException>empty()).collect(Collectors.toList());
+    }, Duration.ofSeconds(10), 4);
+
+    final long start = System.nanoTime();
+    committer.participate(() -> {
+      committer.apply(() -> { });
+      return null;
+    });
+    committer.participate(() -> {
+      committer.apply(() -> { });
+      return null;
+    });
+
+    assertThat(Duration.ofNanos(System.nanoTime() - start))
+        .as("Writes that don't overlap shouldn't wait out the linger time")
+        .isLessThan(Duration.ofSeconds(5));
+    assertThat(groupSizes)
+        .containsExactly(1, 1);
+  }
+
+  @Test
+  void group_stops_waiting_for_participant_that_does_not_write() throws Exception {
+    final GroupCommitter committer = new GroupCommitter(writes -> writes.stream()
+        .map(write -> Optional.<RuntimeException>empty())
+        .collect(Collectors.toList()), Duration.ofSeconds(10), 4);
+    final CountDownLatch participating = new CountDownLatch(1);
+    final CountDownLatch finish = new CountDownLatch(1);
+    final ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      final Future<?> other = executor.submit(() -> committer.participate(() -> {
+        participating.countDown();
+        awaitUninterruptibly(finish);
+        return null;
+      }));
+      participating.await();
+      final long start = System.nanoTime();
+      // Waits for the other participant until it finishes without a write
+      final Future<?> post = executor.submit(() -> committer.participate(() -> {
+        committer.apply(() -> { });
+        return null;
+      }));
+      finish.countDown();
+      post.get(5, TimeUnit.SECONDS);
+      other.get(5, TimeUnit.SECONDS);
+      assertThat(Duration.ofNanos(System.nanoTime() - start))
+          .isLessThan(Duration.ofSeconds(5));
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  void group_does_not_wait_for_participant_standing_aside() throws Exception {
+    final List<Integer> groupSizes = Collections.synchronizedList(new ArrayList<>());
+    final GroupCommitter committer = new GroupCommitter(writes -> {
+      groupSizes.add(writes.size());
+      return writes.stream().map(write -> Optional.<RuntimeException>empty()).collect(Collectors.toList());
+    }, Duration.ofSeconds(10), 4);
+    final CountDownLatch standingAside = new CountDownLatch(1);
+    final CountDownLatch lockReleased = new CountDownLatch(1);
+    final ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      // Waits for a lock that the other participant holds until its write is committed
+      final Future<?> waiting = executor.submit(() -> committer.participate(() -> {
+        committer.standAside(() -> {
+          standingAside.countDown();
+          awaitUninterruptibly(lockReleased);
+        });
+        committer.apply(() -> { });
+        return null;
+      }));
+      standingAside.await();
+      final long start = System.nanoTime();
+      executor.submit(() -> committer.participate(() -> {
+        committer.apply(() -> { });
+        return null;
+      })).get(5, TimeUnit.SECONDS);
+      assertThat(Duration.ofNanos(System.nanoTime() - start))
+          .isLessThan(Duration.ofSeconds(5));
+      lockReleased.countDown();
+      waiting.get(5, TimeUnit.SECONDS);
+    } finally {
+      executor.shutdownNow();
+    }
+    assertThat(groupSizes)
+        .containsExactly(1, 1);
+  }
+
+  @Test
+  void failed_write_fails_only_its_caller() {
+    final IllegalStateException failure = new IllegalStateException("Test failure");
+    final GroupCommitter committer = new GroupCommitter(writes -> writes.stream()
+        .map(write -> {
+          try {
+            write.run();
+            return Optional.<RuntimeException>empty();
+          } catch (RuntimeException e) {
+            return Optional.of(e);
+          }
+        })
+        .collect(Collectors.toList()), Duration.ofMillis(1), 10);
+
+    committer.apply(() -> { });
+    assertThatThrownBy(() -> committer.apply(() -> {
+      throw failure;
+    }))
+        .isSameAs(failure);
+  }
+
+  @Test
+  void failed_commit_fails_every_caller() {
+    final IllegalStateException failure = new IllegalStateException("Commit failed");
+    final GroupCommitter committer = new GroupCommitter(writes -> {
+      throw failure;
+    }, Duration.ofMillis(1), 10);
+
+    assertThatThrownBy(() -> committer.apply(() -> { }))
+        .isSameAs(failure);
+  }
+}
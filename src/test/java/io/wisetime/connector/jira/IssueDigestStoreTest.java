@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2026 Practice Insight Pty Ltd. All Rights Reserved.
+ */
+
+package io.wisetime.connector.jira;
+
+import static io.wisetime.connector.jira.JiraDao.Issue;
+import static io.wisetime.connector.jira.RandomDataGenerator.randomIssue;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.common.collect.ImmutableMap;
+import io.wisetime.generated.connect.UpsertTagRequest;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class IssueDigestStoreTest {
+
+  @TempDir
+  Path dataDir;
+
+  @Test
+  void isUnchanged() {
+    final IssueDigestStore store = new IssueDigestStore(Optional.empty());
+    final Issue issue = randomIssue();
+    final UpsertTagRequest request = issue.toUpsertTagRequest("/Jira/");
+
+    assertThat(store.isUnchanged(issue.getId(), request))
+        .as("Issue was never recorded")
+        .isFalse();
+
+    store.putAll(ImmutableMap.of(issue.getId(), request));
+    assertThat(store.isUnchanged(issue.getId(), issue.toUpsertTagRequest("/Jira/")))
+        .as("Same tag as recorded")
+        .isTrue();
+    assertThat(store.isUnchanged(issue.getId(), issue.setSummary(issue.getSummary() + "!").toUpsertTagRequest("/Jira/")))
+        .as("Issue summary changed")
+        .isFalse();
+    assertThat(store.isUnchanged(issue.getId(), request.url("https://jira.example.com/browse/" + issue.getKey())))
+        .as("Tag URL changed")
+        .isFalse();
+  }
+
+  @Test
+  void survives_restart() {
+    final Path file = dataDir.resolve("issue-digests.bin");
+    final IssueDigestStore store = new IssueDigestStore(Optional.of(file));
+    IntStream.rangeClosed(1, 5000).forEach(id ->
+        store.putAll(ImmutableMap.of((long) id, randomIssue("WT-" + id).setId(id).toUpsertTagRequest("/Jira/"))));
+
+    final Issue changed = randomIssue("WT-10").setId(10);
+    store.putAll(ImmutableMap.of(10L, changed.toUpsertTagRequest("/Jira/")));
+
+    final IssueDigestStore reloaded = new IssueDigestStore(Optional.of(file));
+    assertThat(reloaded.size())
+        .as("All recorded issues should be reloaded")
+        .isEqualTo(5000);
+    assertThat(reloaded.isUnchanged(10, changed.toUpsertTagRequest("/Jira/")))
+        .as("The latest digest of an issue wins")
+        .isTrue();
+  }
+
+  @Test
+  void partially_written_record_is_dropped() throws IOException {
+    final Path file = dataDir.resolve("issue-digests.bin");
+    final Issue issue = randomIssue().setId(1);
+    new IssueDigestStore(Optional.of(file)).putAll(ImmutableMap.of(1L, issue.toUpsertTagRequest("/Jira/")));
+    Files.write(file, new byte[] {1, 2, 3}, StandardOpenOption.APPEND);
+
+    final IssueDigestStore reloaded = new IssueDigestStore(Optional.of(file));
+    final Issue another = randomIssue().setId(2);
+    reloaded.putAll(ImmutableMap.of(2L, another.toUpsertTagRequest("/Jira/")));
+
+    final IssueDigestStore reloadedAgain = new IssueDigestStore(Optional.of(file));
+    assertThat(reloadedAgain.isUnchanged(1, issue.toUpsertTagRequest("/Jira/")))
+        .isTrue();
+    assertThat(reloadedAgain.isUnchanged(2, another.toUpsertTagRequest("/Jira/")))
+        .as("Records appended after a partial record should still be readable")
+        .isTrue();
+  }
+}
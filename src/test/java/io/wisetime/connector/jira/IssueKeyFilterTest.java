@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2026 Practice Insight Pty Ltd. All Rights Reserved.
+ */
+
+package io.wisetime.connector.jira;
+
+import static io.wisetime.connector.jira.RandomDataGenerator.randomIssue;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import java.nio.file.Path;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class IssueKeyFilterTest {
+
+  @TempDir
+  Path dataDir;
+
+  @Test
+  void mightContain() {
+    final IssueKeyFilter filter = IssueKeyFilter.create(1000);
+    filter.putAll(ImmutableList.of(randomIssue("WT-1").setId(5), randomIssue("WT-2").setId(3)));
+
+    assertThat(filter.mightContain("WT-1") && filter.mightContain("WT-2"))
+        .as("Added keys should always be reported")
+        .isTrue();
+    assertThat(IntStream.rangeClosed(3, 1000).filter(number -> filter.mightContain("WT-" + number)).count())
+        .as("Few keys that weren't added should be reported")
+        .isLessThan(50);
+    assertThat(filter.maxIssueId())
+        .isEqualTo(5);
+  }
+
+  @Test
+  void needsRebuild() {
+    final IssueKeyFilter filter = IssueKeyFilter.create(100);
+    filter.putAll(IntStream.rangeClosed(1, 100).mapToObj(id -> randomIssue("WT-" + id).setId(id))
+        .collect(Collectors.toList()));
+    assertThat(filter.needsRebuild())
+        .isFalse();
+
+    filter.putAll(IntStream.rangeClosed(101, 150).mapToObj(id -> randomIssue("WT-" + id).setId(id))
+        .collect(Collectors.toList()));
+    assertThat(filter.needsRebuild())
+        .as("Filter should be rebuilt once it holds more keys than it was sized for")
+        .isTrue();
+  }
+
+  @Test
+  void save_and_load() {
+    final Path file = dataDir.resolve("issue-keys.bloom");
+    assertThat(IssueKeyFilter.load(file))
+        .isEmpty();
+
+    final IssueKeyFilter filter = IssueKeyFilter.create(1000);
+    filter.putAll(ImmutableList.of(randomIssue("WT-1").setId(7)));
+    filter.save(file);
+
+    final IssueKeyFilter loaded = IssueKeyFilter.load(file).get();
+    assertThat(loaded.mightContain("WT-1"))
+        .isTrue();
+    assertThat(loaded.maxIssueId())
+        .as("Issues created after the filter was saved should be found by their ID")
+        .isEqualTo(7);
+  }
+
+  @Test
+  void hasUnsavedOlderKeys() {
+    final Path file = dataDir.resolve("issue-keys.bloom");
+    final IssueKeyFilter filter = IssueKeyFilter.create(1000);
+    filter.putAll(ImmutableList.of(randomIssue("WT-1").setId(7), randomIssue("WT-2").setId(8)));
+    assertThat(filter.hasUnsavedOlderKeys())
+        .as("Newer issues are found again after a restart")
+        .isFalse();
+
+    filter.putAll(ImmutableList.of(randomIssue("WT-1").setId(7)));
+    assertThat(filter.hasUnsavedOlderKeys())
+        .as("A key that was added before doesn't change the filter")
+        .isFalse();
+
+    filter.putAll(ImmutableList.of(randomIssue("OTHER-1").setId(7)));
+    assertThat(filter.hasUnsavedOlderKeys())
+        .as("The new key of a moved issue is not found again after a restart")
+        .isTrue();
+
+    filter.save(file);
+    assertThat(filter.hasUnsavedOlderKeys())
+        .isFalse();
+    assertThat(IssueKeyFilter.load(file).get().mightContain("OTHER-1"))
+        .isTrue();
+  }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2026 Practice Insight Pty Ltd. All Rights Reserved.
+ */
+
+package io.wisetime.connector.jira;
+
+import static io.wisetime.connector.jira.ConnectorLauncher.JiraConnectorConfigKey;
+import static io.wisetime.connector.jira.JiraDao.Issue;
+import static io.wisetime.connector.jira.RandomDataGenerator.randomIssue;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.inject.Guice;
+import io.wisetime.connector.ConnectorModule;
+import io.wisetime.connector.api_client.ApiClient;
+import io.wisetime.connector.config.ConnectorConfigKey;
+import io.wisetime.connector.config.RuntimeConfig;
+import io.wisetime.connector.datastore.ConnectorStore;
+import io.wisetime.generated.connect.DeleteTagRequest;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Optional;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+
+class JiraConnectorDeleteRemovedIssuesTest {
+
+  private static JiraDao jiraDao = mock(JiraDao.class);
+  private static ApiClient apiClient = mock(ApiClient.class);
+  private static ConnectorStore connectorStore = mock(ConnectorStore.class);
+  private JiraConnector connector;
+
+  @TempDir
+  Path dataDir;
+
+  @BeforeEach
+  void setUp() {
+    reset(jiraDao, apiClient, connectorStore);
+    RuntimeConfig.setProperty(JiraConnectorConfigKey.TAG_UPSERT_PATH, "/test/path/");
+    RuntimeConfig.setProperty(JiraConnectorConfigKey.TAG_DELETE_REMOVED_ISSUES, "true");
+    RuntimeConfig.setProperty(ConnectorConfigKey.DATA_DIR, dataDir.toString());
+
+    connector = Guice.createInjector(binder -> {
+      binder.bind(JiraDao.class).toProvider(() -> jiraDao);
+    }).getInstance(JiraConnector.class);
+
+    // Ensure JiraConnector#init will not fail
+    doReturn(true).when(jiraDao).hasExpectedSchema();
+    connector.init(new ConnectorModule(apiClient, connectorStore, 5));
+  }
+
+  @AfterEach
+  void tearDown() {
+    RuntimeConfig.clearProperty(JiraConnectorConfigKey.TAG_UPSERT_PATH);
+    RuntimeConfig.clearProperty(JiraConnectorConfigKey.TAG_DELETE_REMOVED_ISSUES);
+    RuntimeConfig.clearProperty(ConnectorConfigKey.DATA_DIR);
+  }
+
+  @Test
+  void deleteTagsOfRemovedIssues() throws IOException {
+    final Issue kept = randomIssue("WT-1").setId(1);
+    final Issue deleted = randomIssue("WT-2").setId(2);
+    when(connectorStore.getLong(anyString())).thenReturn(Optional.empty());
+    when(jiraDao.findIssuesOrderedById(anyLong(), anyInt(), any()))
+        .thenReturn(ImmutableList.of(kept, deleted))
+        .thenReturn(ImmutableList.of());
+    connector.refreshIssues(10);
+
+    when(jiraDao.findExistingIssueIds(ImmutableList.of(1L, 2L))).thenReturn(ImmutableSet.of(1L));
+    connector.deleteTagsOfRemovedIssues();
+
+    final ArgumentCaptor<DeleteTagRequest> deleteRequest = ArgumentCaptor.forClass(DeleteTagRequest.class);
+    verify(apiClient, times(1)).tagDelete(deleteRequest.capture());
+    assertThat(deleteRequest.getValue().getName())
+        .as("Only the tag of the deleted issue should be deleted")
+        .isEqualTo("WT-2");
+    verify(connectorStore).putLong("last-deletion-checked-issue-id", 0L);
+
+    reset(apiClient);
+    when(jiraDao.findExistingIssueIds(ImmutableList.of(1L))).thenReturn(ImmutableSet.of(1L));
+    connector.deleteTagsOfRemovedIssues();
+    verify(apiClient, never()).tagDelete(any());
+  }
+
+  @Test
+  void deleteTagsOfRemovedIssues_nothing_synced() throws IOException {
+    connector.deleteTagsOfRemovedIssues();
+
+    verify(jiraDao, never()).findExistingIssueIds(anyCollection());
+    verify(apiClient, never()).tagDelete(any());
+  }
+}
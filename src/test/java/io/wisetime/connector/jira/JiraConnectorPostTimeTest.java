@@ -6,22 +6,31 @@ package io.wisetime.connector.jira;
 
 import static io.wisetime.connector.jira.ConnectorLauncher.JiraConnectorConfigKey;
 import static io.wisetime.connector.jira.JiraDao.Issue;
+import static io.wisetime.connector.jira.JiraDao.IssueLookup;
 import static io.wisetime.connector.jira.JiraDao.Worklog;
+import static java.util.stream.Collectors.toMap;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.inject.Guice;
 import io.wisetime.connector.ConnectorModule;
 import io.wisetime.connector.api_client.ApiClient;
@@ -37,8 +46,18 @@ import io.wisetime.generated.connect.User;
 import java.io.IOException;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -73,12 +92,14 @@ class JiraConnectorPostTimeTest {
 
     reset(jiraDaoMock);
     reset(apiClientMock);
+    connector.invalidateIssueCaches();
 
     // Ensure that code in the transaction lambda gets exercised
     doAnswer(invocation -> {
       invocation.<Runnable>getArgument(0).run();
       return null;
     }).when(jiraDaoMock).asTransaction(any(Runnable.class));
+    whenIssuesFound(ImmutableMap.of());
   }
 
   @Test
@@ -180,9 +201,9 @@ class JiraConnectorPostTimeTest {
         .as("Valid time group should be posted successfully")
         .isEqualTo(PostResultStatus.SUCCESS);
 
-    final ArgumentCaptor<Worklog> worklogCaptor = ArgumentCaptor.forClass(Worklog.class);
-    verify(jiraDaoMock, times(timeGroup.getTags().size())).createWorklog(worklogCaptor.capture());
-    assertThat(worklogCaptor.getValue().getAuthor())
+    final List<Worklog> createdWorklogs = createdWorklogs();
+    assertThat(createdWorklogs).hasSize(timeGroup.getTags().size());
+    assertThat(createdWorklogs.get(0).getAuthor())
         .as("should use the external id as username")
         .isEqualTo(externalId);
 
@@ -202,9 +223,9 @@ class JiraConnectorPostTimeTest {
         .as("Valid time group should be posted successfully")
         .isEqualTo(PostResultStatus.SUCCESS);
 
-    final ArgumentCaptor<Worklog> worklogCaptor = ArgumentCaptor.forClass(Worklog.class);
-    verify(jiraDaoMock, times(timeGroup.getTags().size())).createWorklog(worklogCaptor.capture());
-    assertThat(worklogCaptor.getValue().getAuthor())
+    final List<Worklog> createdWorklogs = createdWorklogs();
+    assertThat(createdWorklogs).hasSize(timeGroup.getTags().size());
+    assertThat(createdWorklogs.get(0).getAuthor())
         .as("should look for Jira user with email as the external id "
             + "if latter is not a Jira username but looks like an email.")
         .isEqualTo(timeGroup.getUser().getExternalId());
@@ -222,9 +243,9 @@ class JiraConnectorPostTimeTest {
         .as("Valid time group should be posted successfully")
         .isEqualTo(PostResultStatus.SUCCESS);
 
-    final ArgumentCaptor<Worklog> worklogCaptor = ArgumentCaptor.forClass(Worklog.class);
-    verify(jiraDaoMock, times(timeGroup.getTags().size())).createWorklog(worklogCaptor.capture());
-    assertThat(worklogCaptor.getValue().getAuthor())
+    final List<Worklog> createdWorklogs = createdWorklogs();
+    assertThat(createdWorklogs).hasSize(timeGroup.getTags().size());
+    assertThat(createdWorklogs.get(0).getAuthor())
         .as("should user email to look for Jira user if external id is not set.")
         .isEqualTo(jiraUserName);
 
@@ -234,7 +255,7 @@ class JiraConnectorPostTimeTest {
   @Test
   void postTime_cant_find_relevant_issue() throws IOException {
     final TimeGroup timeGroup = fakeEntities.randomTimeGroup();
-    when(jiraDaoMock.findIssueByTagName(anyString())).thenReturn(Optional.empty());
+    whenIssuesFound(ImmutableMap.of());
     when(jiraDaoMock.userExists(timeGroup.getUser().getExternalId())).thenReturn(true);
 
     assertThat(connector.postTime(timeGroup).getStatus())
@@ -242,7 +263,7 @@ class JiraConnectorPostTimeTest {
         .isEqualTo(PostResultStatus.PERMANENT_FAILURE);
 
     for (Tag tag : timeGroup.getTags()) {
-      verify(apiClientMock, times(1)).tagDelete(new DeleteTagRequest().name(tag.getName()));
+      verify(apiClientMock, timeout(5000).times(1)).tagDelete(new DeleteTagRequest().name(tag.getName()));
     }
     verifyJiraNotUpdated();
   }
@@ -253,7 +274,7 @@ class JiraConnectorPostTimeTest {
     final TimeGroup timeGroup = fakeEntities.randomTimeGroup()
         .tags(ImmutableList.of(tag));
 
-    when(jiraDaoMock.findIssueByTagName(anyString())).thenReturn(Optional.empty());
+    whenIssuesFound(ImmutableMap.of());
     when(jiraDaoMock.userExists(timeGroup.getUser().getExternalId())).thenReturn(true);
 
     assertThat(connector.postTime(timeGroup).getStatus())
@@ -269,7 +290,7 @@ class JiraConnectorPostTimeTest {
     final TimeGroup timeGroup = fakeEntities.randomTimeGroup()
         .tags(ImmutableList.of(tag));
 
-    when(jiraDaoMock.findIssueByTagName(anyString())).thenReturn(Optional.empty());
+    whenIssuesFound(ImmutableMap.of());
 
     assertThat(connector.postTime(timeGroup).getStatus())
         .as("This connector could not find the tag in Jira. However, the tag was not created by the connector "
@@ -288,8 +309,8 @@ class JiraConnectorPostTimeTest {
     final Tag tag = fakeEntities.randomTag("/Jira/");
     final Issue issue = RandomDataGenerator.randomIssue(tag.getName());
 
-    when(jiraDaoMock.findIssueByTagName(anyString())).thenReturn(Optional.of(issue));
-    doThrow(new RuntimeException("Test exception")).when(jiraDaoMock).createWorklog(any(Worklog.class));
+    whenIssuesFound(timeGroup.getTags().stream().collect(toMap(Tag::getName, timeGroupTag -> issue)));
+    doThrow(new RuntimeException("Test exception")).when(jiraDaoMock).createWorklogs(anyList());
 
     final PostResult result = connector.postTime(timeGroup);
 
@@ -330,19 +351,15 @@ class JiraConnectorPostTimeTest {
     final Issue issue1 = RandomDataGenerator.randomIssue(tag1.getName());
     final Issue issue2 = RandomDataGenerator.randomIssue(tag1.getName());
 
-    when(jiraDaoMock.findIssueByTagName(anyString()))
-        .thenReturn(Optional.of(issue1))
-        .thenReturn(Optional.of(issue2))
-        .thenReturn(Optional.empty());
+    whenIssuesFound(ImmutableMap.of(tag1.getName(), issue1));
 
     assertThat(connector.postTime(timeGroup).getStatus())
         .as("Valid time group should be posted successfully")
         .isEqualTo(PostResultStatus.SUCCESS);
 
     // Verify worklog creation
-    ArgumentCaptor<Worklog> worklogCaptor = ArgumentCaptor.forClass(Worklog.class);
-    verify(jiraDaoMock, times(1)).createWorklog(worklogCaptor.capture());
-    List<Worklog> createdWorklogs = worklogCaptor.getAllValues();
+    List<Worklog> createdWorklogs = createdWorklogs();
+    assertThat(createdWorklogs).hasSize(1);
 
     assertThat(createdWorklogs.get(0).getIssueId())
         .as("The worklog should be assigned to the right issue")
@@ -368,19 +385,16 @@ class JiraConnectorPostTimeTest {
             + "be split equally between the two tags")
         .isEqualTo(500);
 
-    ArgumentCaptor<Long> idUpdateIssueCaptor = ArgumentCaptor.forClass(Long.class);
-    ArgumentCaptor<Long> timeSpentUpdateIssueCaptor = ArgumentCaptor.forClass(Long.class);
-    verify(jiraDaoMock, times(1))
-        .updateIssueTimeSpent(idUpdateIssueCaptor.capture(), timeSpentUpdateIssueCaptor.capture());
+    final Map<Long, Long> updatedTimeSpent = updatedTimeSpent();
 
-    List<Long> updatedIssueIds = idUpdateIssueCaptor.getAllValues();
+    List<Long> updatedIssueIds = new ArrayList<>(updatedTimeSpent.keySet());
     assertThat(updatedIssueIds)
         .containsExactly(issue1.getId())
         .as("Time spent of both matching issues should be updated");
 
-    List<Long> updatedIssueTimes = timeSpentUpdateIssueCaptor.getAllValues();
+    List<Long> updatedIssueTimes = new ArrayList<>(updatedTimeSpent.values());
     assertThat(updatedIssueTimes)
-        .containsExactly(issue1.getTimeSpent() + 500)
+        .containsExactly(500L)
         .as("Time spent of both matching issues should be updated with new duration.");
   }
 
@@ -406,19 +420,15 @@ class JiraConnectorPostTimeTest {
     final Issue issue1 = RandomDataGenerator.randomIssue(tag1.getName());
     final Issue issue2 = RandomDataGenerator.randomIssue(tag2.getName());
 
-    when(jiraDaoMock.findIssueByTagName(anyString()))
-        .thenReturn(Optional.of(issue1))
-        .thenReturn(Optional.of(issue2))
-        .thenReturn(Optional.empty());
+    whenIssuesFound(ImmutableMap.of(tag1.getName(), issue1));
 
     assertThat(connector.postTime(timeGroup).getStatus())
         .as("Valid time group should be posted successfully")
         .isEqualTo(PostResultStatus.SUCCESS);
 
     // Verify worklog creation
-    ArgumentCaptor<Worklog> worklogCaptor = ArgumentCaptor.forClass(Worklog.class);
-    verify(jiraDaoMock, times(1)).createWorklog(worklogCaptor.capture());
-    List<Worklog> createdWorklogs = worklogCaptor.getAllValues();
+    List<Worklog> createdWorklogs = createdWorklogs();
+    assertThat(createdWorklogs).hasSize(1);
 
     assertThat(createdWorklogs.get(0).getIssueId())
         .isEqualTo(issue1.getId())
@@ -440,19 +450,16 @@ class JiraConnectorPostTimeTest {
         .as("The time worked should take into account the user's experience rating and"
             + " not be splitted.");
 
-    ArgumentCaptor<Long> idUpdateIssueCaptor = ArgumentCaptor.forClass(Long.class);
-    ArgumentCaptor<Long> timeSpentUpdateIssueCaptor = ArgumentCaptor.forClass(Long.class);
-    verify(jiraDaoMock, times(1))
-        .updateIssueTimeSpent(idUpdateIssueCaptor.capture(), timeSpentUpdateIssueCaptor.capture());
+    final Map<Long, Long> updatedTimeSpent = updatedTimeSpent();
 
-    List<Long> updatedIssueIds = idUpdateIssueCaptor.getAllValues();
+    List<Long> updatedIssueIds = new ArrayList<>(updatedTimeSpent.keySet());
     assertThat(updatedIssueIds)
         .containsExactly(issue1.getId())
         .as("Time spent of relevant issue should be updated");
 
-    List<Long> updatedIssueTimes = timeSpentUpdateIssueCaptor.getAllValues();
+    List<Long> updatedIssueTimes = new ArrayList<>(updatedTimeSpent.values());
     assertThat(updatedIssueTimes)
-        .containsExactly(issue1.getTimeSpent() + 500)
+        .containsExactly(500L)
         .as("Time spent of relevant issue should be updated with new duration.");
   }
 
@@ -470,11 +477,11 @@ class JiraConnectorPostTimeTest {
 
     connector.postTime(timeGroup);
 
-    ArgumentCaptor<String> tagNameCaptor = ArgumentCaptor.forClass(String.class);
-    verify(jiraDaoMock, times(1)).findIssueByTagName(tagNameCaptor.capture());
+    ArgumentCaptor<Collection<String>> tagNameCaptor = ArgumentCaptor.forClass(Collection.class);
+    verify(jiraDaoMock, times(1)).findIssuesByTagNames(tagNameCaptor.capture());
 
     assertThat(tagNameCaptor.getValue())
-        .isEqualTo("WT-2")
+        .containsExactly("WT-2")
         .as("Only configured project keys should be handled when posting time");
   }
 
@@ -496,6 +503,43 @@ class JiraConnectorPostTimeTest {
     verifyJiraNotUpdated();
   }
 
+  @Test
+  void postTime_concurrent_posts_to_same_issue() throws Exception {
+    final Tag tag = fakeEntities.randomTag("/Jira/");
+    final List<TimeGroup> timeGroups = IntStream.range(0, 8)
+        .mapToObj(i -> fakeEntities.randomTimeGroup().tags(ImmutableList.of(tag)))
+        .collect(Collectors.toList());
+    timeGroups.forEach(this::setPrerequisitesForSuccessfulPostTime);
+    whenIssuesFound(ImmutableMap.of(tag.getName(), RandomDataGenerator.randomIssue(tag.getName())));
+
+    final AtomicInteger transactionsInFlight = new AtomicInteger();
+    final AtomicInteger maxTransactionsInFlight = new AtomicInteger();
+    doAnswer(invocation -> {
+      maxTransactionsInFlight.accumulateAndGet(transactionsInFlight.incrementAndGet(), Math::max);
+      Thread.sleep(10);
+      invocation.<Runnable>getArgument(0).run();
+      transactionsInFlight.decrementAndGet();
+      return null;
+    }).when(jiraDaoMock).asTransaction(any(Runnable.class));
+
+    final ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      final List<Future<PostResult>> results = new ArrayList<>();
+      timeGroups.forEach(timeGroup -> results.add(executor.submit(() -> connector.postTime(timeGroup))));
+      for (Future<PostResult> result : results) {
+        assertThat(result.get().getStatus())
+            .isEqualTo(PostResultStatus.SUCCESS);
+      }
+    } finally {
+      executor.shutdown();
+    }
+
+    assertThat(maxTransactionsInFlight.get())
+        .as("Posts to the same issue should not write at the same time")
+        .isEqualTo(1);
+    verify(jiraDaoMock, times(timeGroups.size())).addIssuesTimeSpent(anyMap());
+  }
+
   @Test
   void postTime_check_narrative_with_time_row_info() {
     final List<Tag> tags = ImmutableList.of(
@@ -519,9 +563,8 @@ class JiraConnectorPostTimeTest {
         .isEqualTo(PostResultStatus.SUCCESS);
 
     // Verify worklog creation
-    ArgumentCaptor<Worklog> worklogCaptor = ArgumentCaptor.forClass(Worklog.class);
-    verify(jiraDaoMock, times(2)).createWorklog(worklogCaptor.capture());
-    List<Worklog> createdWorklogs = worklogCaptor.getAllValues();
+    List<Worklog> createdWorklogs = createdWorklogs();
+    assertThat(createdWorklogs).hasSize(2);
 
     assertThat(createdWorklogs.get(0).getBody())
         .as("The diary body should be set to the output of the template formatter")
@@ -533,6 +576,123 @@ class JiraConnectorPostTimeTest {
         .isEqualTo(createdWorklogs.get(1).getBody());
   }
 
+  @Test
+  void postTime_redelivered_time_group_not_posted_again() {
+    final TimeGroup timeGroup = fakeEntities.randomTimeGroup();
+    setPrerequisitesForSuccessfulPostTime(timeGroup);
+
+    assertThat(connector.postTime(timeGroup).getStatus())
+        .isEqualTo(PostResultStatus.SUCCESS);
+    reset(jiraDaoMock);
+
+    assertThat(connector.postTime(timeGroup).getStatus())
+        .as("A time group that was already posted should be acknowledged again")
+        .isEqualTo(PostResultStatus.SUCCESS);
+    verify(jiraDaoMock, never()).findIssuesByTagNames(any());
+    verifyJiraNotUpdated();
+  }
+
+  @Test
+  void postTime_uses_cached_issue_ids() {
+    final TimeGroup timeGroup = fakeEntities.randomTimeGroup();
+    setPrerequisitesForSuccessfulPostTime(timeGroup);
+    assertThat(connector.postTime(timeGroup).getStatus())
+        .isEqualTo(PostResultStatus.SUCCESS);
+    final List<Worklog> firstWorklogs = createdWorklogs();
+    reset(jiraDaoMock);
+    doAnswer(invocation -> {
+      invocation.<Runnable>getArgument(0).run();
+      return null;
+    }).when(jiraDaoMock).asTransaction(any(Runnable.class));
+    when(jiraDaoMock.userExists(timeGroup.getUser().getExternalId())).thenReturn(true);
+
+    final TimeGroup sameTags = fakeEntities.randomTimeGroup()
+        .tags(timeGroup.getTags())
+        .user(timeGroup.getUser());
+    assertThat(connector.postTime(sameTags).getStatus())
+        .isEqualTo(PostResultStatus.SUCCESS);
+
+    verify(jiraDaoMock, never()).findIssuesByTagNames(any());
+    assertThat(createdWorklogs().stream().map(Worklog::getIssueId))
+        .as("Issue IDs should be taken from the cache")
+        .containsExactlyElementsOf(firstWorklogs.stream().map(Worklog::getIssueId).collect(Collectors.toList()));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void postTime_outdated_cached_issue_ids_looked_up_again() {
+    final TimeGroup timeGroup = fakeEntities.randomTimeGroup()
+        .tags(ImmutableList.of(fakeEntities.randomTag("/Jira/")));
+    setPrerequisitesForSuccessfulPostTime(timeGroup);
+    assertThat(connector.postTime(timeGroup).getStatus())
+        .isEqualTo(PostResultStatus.SUCCESS);
+    final long cachedIssueId = createdWorklogs().get(0).getIssueId();
+
+    // The issue was deleted and the tag now refers to another issue
+    final Issue newIssue = RandomDataGenerator.randomIssue(timeGroup.getTags().get(0).getName());
+    whenIssuesFound(ImmutableMap.of(newIssue.getKey(), newIssue));
+    doAnswer(invocation -> invocation.<Map<Long, Long>>getArgument(0).containsKey(cachedIssueId)
+        ? ImmutableSet.of(cachedIssueId)
+        : ImmutableSet.of()).when(jiraDaoMock).addIssuesTimeSpent(anyMap());
+    final TimeGroup sameTags = fakeEntities.randomTimeGroup()
+        .tags(timeGroup.getTags())
+        .user(timeGroup.getUser());
+
+    assertThat(connector.postTime(sameTags).getStatus())
+        .as("Time should be posted to the issue found in the database")
+        .isEqualTo(PostResultStatus.SUCCESS);
+    final ArgumentCaptor<List<Worklog>> worklogsCaptor = ArgumentCaptor.forClass(List.class);
+    verify(jiraDaoMock, times(2)).createWorklogs(worklogsCaptor.capture());
+    assertThat(worklogsCaptor.getValue().get(0).getIssueId())
+        .isEqualTo(newIssue.getId());
+  }
+
+  @Test
+  void postTime_cached_key_of_moved_issue_looked_up_again() {
+    final TimeGroup timeGroup = fakeEntities.randomTimeGroup()
+        .tags(ImmutableList.of(fakeEntities.randomTag("/Jira/")));
+    setPrerequisitesForSuccessfulPostTime(timeGroup);
+    assertThat(connector.postTime(timeGroup).getStatus())
+        .isEqualTo(PostResultStatus.SUCCESS);
+    final long cachedIssueId = createdWorklogs().get(0).getIssueId();
+
+    // The refresh finds that the issue has moved to another project
+    final Issue movedIssue = RandomDataGenerator.randomIssue("MOVED-1").setId(cachedIssueId);
+    when(jiraDaoMock.findIssuesOrderedByUpdated(any(), anyLong(), anyInt(), any()))
+        .thenReturn(ImmutableList.of(movedIssue))
+        .thenReturn(ImmutableList.of());
+    connector.refreshUpdatedIssues(10);
+
+    whenIssuesFound(ImmutableMap.of());
+    final TimeGroup oldKey = fakeEntities.randomTimeGroup()
+        .tags(timeGroup.getTags())
+        .user(timeGroup.getUser());
+    assertThat(connector.postTime(oldKey).getStatus())
+        .as("The old key no longer refers to the moved issue")
+        .isEqualTo(PostResultStatus.PERMANENT_FAILURE);
+    verify(jiraDaoMock, times(2)).findIssuesByTagNames(any());
+  }
+
+  @Test
+  void postTime_tag_not_in_issue_key_filter() {
+    final Issue syncedIssue = RandomDataGenerator.randomIssue("WT-1");
+    doAnswer(invocation -> {
+      invocation.<Consumer<List<Issue>>>getArgument(2).accept(ImmutableList.of(syncedIssue));
+      return null;
+    }).when(jiraDaoMock).streamIssuesOrderedById(eq(0L), any(), any());
+    connector.prepareIssueKeyFilter();
+
+    final TimeGroup timeGroup = fakeEntities.randomTimeGroup()
+        .tags(ImmutableList.of(fakeEntities.randomTag("/Jira/").name("WT-2")));
+    when(jiraDaoMock.userExists(timeGroup.getUser().getExternalId())).thenReturn(true);
+
+    assertThat(connector.postTime(timeGroup).getStatus())
+        .as("A tag that isn't a synced issue key should not be found in Jira")
+        .isEqualTo(PostResultStatus.PERMANENT_FAILURE);
+    verify(jiraDaoMock, never()).findIssuesByTagNames(any());
+    verifyJiraNotUpdated();
+  }
+
   @Test
   void postTime_check_narrative_duration_narrative_only() {
     final List<Tag> tags = ImmutableList.of(
@@ -556,9 +716,8 @@ class JiraConnectorPostTimeTest {
         .isEqualTo(PostResultStatus.SUCCESS);
 
     // Verify worklog creation
-    ArgumentCaptor<Worklog> worklogCaptor = ArgumentCaptor.forClass(Worklog.class);
-    verify(jiraDaoMock, times(2)).createWorklog(worklogCaptor.capture());
-    List<Worklog> createdWorklogs = worklogCaptor.getAllValues();
+    List<Worklog> createdWorklogs = createdWorklogs();
+    assertThat(createdWorklogs).hasSize(2);
 
     assertThat(createdWorklogs.get(0).getBody())
         .as("The diary body should be set to the output of the template formatter")
@@ -577,12 +736,40 @@ class JiraConnectorPostTimeTest {
   }
 
   private void setTimeGroupTagAsValidJiraIssues(final TimeGroup timeGroup) {
-    timeGroup.getTags().forEach(tag -> when(jiraDaoMock.findIssueByTagName(tag.getName()))
-        .thenReturn(Optional.of(RandomDataGenerator.randomIssue(tag.getName()))));
+    whenIssuesFound(timeGroup.getTags().stream()
+        .collect(toMap(Tag::getName, tag -> RandomDataGenerator.randomIssue(tag.getName()))));
+  }
+
+  private void whenIssuesFound(final Map<String, Issue> issuesByTagName) {
+    doAnswer(invocation -> {
+      final IssueLookup lookup = new IssueLookup();
+      invocation.<Collection<String>>getArgument(0).forEach(tagName -> {
+        if (issuesByTagName.containsKey(tagName)) {
+          lookup.getIssues().put(tagName, issuesByTagName.get(tagName));
+        } else {
+          lookup.getMissingTagNames().add(tagName);
+        }
+      });
+      return lookup;
+    }).when(jiraDaoMock).findIssuesByTagNames(any());
+  }
+
+  @SuppressWarnings("unchecked")
+  private List<Worklog> createdWorklogs() {
+    final ArgumentCaptor<List<Worklog>> worklogsCaptor = ArgumentCaptor.forClass(List.class);
+    verify(jiraDaoMock, times(1)).createWorklogs(worklogsCaptor.capture());
+    return worklogsCaptor.getValue();
+  }
+
+  @SuppressWarnings("unchecked")
+  private Map<Long, Long> updatedTimeSpent() {
+    final ArgumentCaptor<Map<Long, Long>> timeSpentCaptor = ArgumentCaptor.forClass(Map.class);
+    verify(jiraDaoMock, times(1)).addIssuesTimeSpent(timeSpentCaptor.capture());
+    return timeSpentCaptor.getValue();
   }
 
   private void verifyJiraNotUpdated() {
-    verify(jiraDaoMock, never()).updateIssueTimeSpent(anyLong(), anyLong());
-    verify(jiraDaoMock, never()).createWorklog(any(Worklog.class));
+    verify(jiraDaoMock, never()).addIssuesTimeSpent(anyMap());
+    verify(jiraDaoMock, never()).createWorklogs(anyList());
   }
 }
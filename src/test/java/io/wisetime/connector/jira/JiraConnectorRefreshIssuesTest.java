@@ -31,6 +31,8 @@ import io.wisetime.connector.config.RuntimeConfig;
 import io.wisetime.connector.datastore.ConnectorStore;
 import io.wisetime.generated.connect.UpsertTagRequest;
 import java.io.IOException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.Optional;
 import org.junit.jupiter.api.AfterAll;
@@ -79,6 +81,7 @@ class JiraConnectorRefreshIssuesTest {
     reset(jiraDao);
     reset(apiClient);
     reset(connectorStore);
+    connector.resetIssueCount();
   }
 
   @Test
@@ -88,16 +91,10 @@ class JiraConnectorRefreshIssuesTest {
     connector.refreshIssues(10);
     verify(apiClient, never()).tagUpsertBatch(anyList());
 
-    ArgumentCaptor<String> storeKey = ArgumentCaptor.forClass(String.class);
-    ArgumentCaptor<Long> storeValue = ArgumentCaptor.forClass(Long.class);
-    verify(connectorStore, times(1)).putLong(storeKey.capture(), storeValue.capture());
-
-    assertThat(storeKey.getValue())
-        .isEqualTo("last-refreshed-issue-id")
-        .as("Last refreshed issue key is as configured");
-    assertThat(storeValue.getValue())
-        .isEqualTo(0L)
-        .as("Last refreshed ID should be reset to zero so that next batch will start over");
+    verify(connectorStore, times(1).description("Last refreshed ID should be reset to zero so that next batch will "
+        + "start over"))
+        .putLong("last-refreshed-issue-id", 0L);
+    verify(connectorStore, times(1)).putLong("refresh-passes", 1L);
   }
 
   @Test
@@ -170,6 +167,148 @@ class JiraConnectorRefreshIssuesTest {
         .as("Last refreshed ID saved is from the last item in the issues list");
   }
 
+  @Test
+  void refreshIssues_unchanged_issues_skipped() throws IOException {
+    final Issue issue1 = randomDataGenerator.randomIssue().setId(1);
+    final Issue issue2 = randomDataGenerator.randomIssue().setId(2);
+    when(connectorStore.getLong("refresh-passes")).thenReturn(Optional.of(1L));
+    when(jiraDao.findIssuesOrderedById(anyLong(), anyInt(), any()))
+        .thenReturn(ImmutableList.of(issue1, issue2))
+        .thenReturn(ImmutableList.of(issue1, issue2.toBuilder().summary(issue2.getSummary() + " renamed").build()))
+        .thenReturn(ImmutableList.of(issue1));
+
+    connector.refreshIssues(10);
+    connector.refreshIssues(10);
+    connector.refreshIssues(10);
+
+    ArgumentCaptor<List<UpsertTagRequest>> upsertRequests = ArgumentCaptor.forClass(List.class);
+    verify(apiClient, times(2)).tagUpsertBatch(upsertRequests.capture());
+    assertThat(upsertRequests.getAllValues().get(1))
+        .as("Only the changed tag should be upserted again")
+        .extracting(UpsertTagRequest::getDescription)
+        .containsExactly(issue2.getSummary() + " renamed");
+    // Skipped issues should still move the refresh forward
+    verify(connectorStore, times(1)).putLong("last-refreshed-issue-id", 1L);
+  }
+
+  @Test
+  void refreshIssues_forced_pass_upserts_unchanged_issues() throws IOException {
+    final Issue issue = randomDataGenerator.randomIssue().setId(1);
+    when(connectorStore.getLong("refresh-passes")).thenReturn(Optional.of(4L));
+    when(jiraDao.findIssuesOrderedById(anyLong(), anyInt(), any()))
+        .thenReturn(ImmutableList.of(issue));
+
+    connector.refreshIssues(10);
+    connector.refreshIssues(10);
+
+    verify(apiClient, times(2).description("Tags edited or deleted in WiseTime should be restored"))
+        .tagUpsertBatch(anyList());
+  }
+
+  @Test
+  void refreshUpdatedIssues_unchanged_issues_skipped() throws IOException {
+    final Issue issue1 = randomDataGenerator.randomIssue().setId(101);
+    final Issue issue2 = randomDataGenerator.randomIssue().setId(102);
+
+    when(jiraDao.findIssuesOrderedByUpdated(any(), anyLong(), anyInt(), any()))
+        .thenReturn(ImmutableList.of(issue1, issue2))
+        .thenReturn(ImmutableList.of())
+        .thenReturn(ImmutableList.of(issue1, issue2.toBuilder().summary(issue2.getSummary() + " renamed").build()))
+        .thenReturn(ImmutableList.of())
+        .thenReturn(ImmutableList.of(issue1))
+        .thenReturn(ImmutableList.of());
+
+    connector.refreshUpdatedIssues(10);
+    connector.refreshUpdatedIssues(10);
+    connector.refreshUpdatedIssues(10);
+
+    ArgumentCaptor<List<UpsertTagRequest>> upsertRequests = ArgumentCaptor.forClass(List.class);
+    verify(apiClient, times(2)).tagUpsertBatch(upsertRequests.capture());
+
+    assertThat(upsertRequests.getAllValues().get(1))
+        .as("Only the renamed issue should be refreshed")
+        .extracting(UpsertTagRequest::getDescription)
+        .containsExactly(issue2.getSummary() + " renamed");
+    // Skipped issues should still move the refresh forward
+    verify(connectorStore, times(1)).putLong("last-refreshed-updated-issue-id", 101L);
+  }
+
+  @Test
+  void refreshUpdatedIssues_pages_until_caught_up() throws IOException {
+    final Instant lastRefreshed = Instant.now().minus(2, ChronoUnit.HOURS).truncatedTo(ChronoUnit.SECONDS);
+    final Issue issue1 = randomDataGenerator.randomIssue().setId(5).setUpdated(lastRefreshed.plusSeconds(60));
+    final Issue issue2 = randomDataGenerator.randomIssue().setId(3).setUpdated(lastRefreshed.plusSeconds(120));
+
+    when(connectorStore.getString("last-refreshed-updated")).thenReturn(Optional.of(lastRefreshed.toString()));
+    when(connectorStore.getLong("last-refreshed-updated-issue-id")).thenReturn(Optional.of(7L));
+    when(jiraDao.findIssuesOrderedByUpdated(any(), anyLong(), anyInt(), any()))
+        .thenReturn(ImmutableList.of(issue1))
+        .thenReturn(ImmutableList.of(issue2))
+        .thenReturn(ImmutableList.of());
+
+    connector.refreshUpdatedIssues(1);
+
+    verify(jiraDao, times(1)).findIssuesOrderedByUpdated(lastRefreshed, 7L, 1, "WT");
+    verify(jiraDao, times(1)).findIssuesOrderedByUpdated(issue1.getUpdated(), 5L, 1, "WT");
+    verify(jiraDao, times(1)).findIssuesOrderedByUpdated(issue2.getUpdated(), 3L, 1, "WT");
+    verify(apiClient, times(2)).tagUpsertBatch(anyList());
+    verify(connectorStore, times(1)).putString("last-refreshed-updated", issue2.getUpdated().toString());
+    verify(connectorStore, times(1)).putLong("last-refreshed-updated-issue-id", 3L);
+  }
+
+  @Test
+  void refreshUpdatedIssues_keeps_sub_millisecond_position() throws IOException {
+    final Instant updated = Instant.parse("2026-03-01T10:15:30.123456Z");
+    final Issue issue = randomDataGenerator.randomIssue().setId(9).setUpdated(updated);
+    when(jiraDao.findIssuesOrderedByUpdated(any(), anyLong(), anyInt(), any()))
+        .thenReturn(ImmutableList.of(issue))
+        .thenReturn(ImmutableList.of());
+
+    connector.refreshUpdatedIssues(10);
+
+    verify(connectorStore, times(1).description("The next run should start after the issue, not before it"))
+        .putString("last-refreshed-updated", "2026-03-01T10:15:30.123456Z");
+  }
+
+  @Test
+  void refreshUpdatedIssues_legacy_millisecond_position() {
+    final Instant lastRefreshed = Instant.parse("2026-03-01T10:15:30.123Z");
+    when(connectorStore.getLong("last-refreshed-updated-millis")).thenReturn(Optional.of(lastRefreshed.toEpochMilli()));
+    when(connectorStore.getLong("last-refreshed-updated-issue-id")).thenReturn(Optional.of(7L));
+    when(jiraDao.findIssuesOrderedByUpdated(any(), anyLong(), anyInt(), any())).thenReturn(ImmutableList.of());
+
+    connector.refreshUpdatedIssues(10);
+
+    verify(jiraDao, times(1)).findIssuesOrderedByUpdated(lastRefreshed, 7L, 10, "WT");
+  }
+
+  @Test
+  void refreshUpdatedIssues_upsert_error() throws IOException {
+    when(jiraDao.findIssuesOrderedByUpdated(any(), anyLong(), anyInt(), any()))
+        .thenReturn(ImmutableList.of(randomDataGenerator.randomIssue()));
+    doThrow(new IOException())
+        .when(apiClient).tagUpsertBatch(anyList());
+
+    assertThatThrownBy(() -> connector.refreshUpdatedIssues(10)).isInstanceOf(RuntimeException.class);
+    verify(connectorStore, never()).putLong(anyString(), anyLong());
+  }
+
+  @Test
+  void tagRefreshBatchSize_incremental() {
+    RuntimeConfig.setProperty(JiraConnectorConfigKey.TAG_UPSERT_BATCH_SIZE, "1000");
+    RuntimeConfig.setProperty(JiraConnectorConfigKey.TAG_REFRESH_MODE, "incremental");
+    try {
+      final int ninetyDaysInMinutes = 129_600;
+      when(jiraDao.issueCount(anyString())).thenReturn(4_000_000L);
+      assertThat(connector.tagRefreshBatchSize())
+          .as("All issues should be refreshed over 90 days by default in incremental mode")
+          .isEqualTo(4_000_000
+              / (ninetyDaysInMinutes / connectorModule.getIntervalConfig().getTagSlowLoopIntervalMinutes()));
+    } finally {
+      RuntimeConfig.clearProperty(JiraConnectorConfigKey.TAG_REFRESH_MODE);
+    }
+  }
+
   @Test
   void tagRefreshBatchSize_enforce_min() {
     RuntimeConfig.setProperty(JiraConnectorConfigKey.TAG_UPSERT_BATCH_SIZE, "100");
@@ -188,6 +327,29 @@ class JiraConnectorRefreshIssuesTest {
         .isEqualTo(20);
   }
 
+  @Test
+  void tagRefreshBatchSize_adaptive() throws IOException {
+    RuntimeConfig.setProperty(JiraConnectorConfigKey.TAG_UPSERT_BATCH_SIZE, "40");
+    RuntimeConfig.setProperty(JiraConnectorConfigKey.TAG_UPSERT_BATCH_SIZE_MAX, "100");
+    doReturn(true).when(jiraDao).hasExpectedSchema();
+    connector.init(connectorModule);
+    try {
+      when(jiraDao.issueCount(anyString())).thenReturn(10_000_000L);
+      when(jiraDao.findIssuesOrderedById(anyLong(), anyInt(), any()))
+          .thenReturn(ImmutableList.of(randomDataGenerator.randomIssue()));
+      doThrow(new IOException())
+          .when(apiClient).tagUpsertBatch(anyList());
+
+      assertThatThrownBy(() -> connector.refreshIssues(10)).isInstanceOf(RuntimeException.class);
+      assertThat(connector.tagRefreshBatchSize())
+          .as("Maximum refresh batch size should back off after a failed upsert")
+          .isEqualTo(20);
+    } finally {
+      RuntimeConfig.clearProperty(JiraConnectorConfigKey.TAG_UPSERT_BATCH_SIZE_MAX);
+      connector.init(connectorModule);
+    }
+  }
+
   @Test
   void tagRefreshBatchSize_calculated() {
     RuntimeConfig.setProperty(JiraConnectorConfigKey.TAG_UPSERT_BATCH_SIZE, "1000");
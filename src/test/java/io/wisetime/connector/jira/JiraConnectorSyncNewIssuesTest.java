@@ -13,8 +13,12 @@ import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
@@ -33,11 +37,13 @@ import io.wisetime.generated.connect.UpsertTagRequest;
 import java.io.IOException;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 
 /**
  * @author shane.xie
@@ -80,6 +86,10 @@ class JiraConnectorSyncNewIssuesTest {
     RuntimeConfig.clearProperty(JiraConnectorConfigKey.TAG_UPSERT_BATCH_SIZE);
     RuntimeConfig.clearProperty(JiraConnectorConfigKey.TAG_UPSERT_PATH);
     RuntimeConfig.clearProperty(JiraConnectorConfigKey.PROJECT_KEYS_FILTER);
+    RuntimeConfig.clearProperty(JiraConnectorConfigKey.TAG_SYNC_PREFETCH_BATCHES);
+    RuntimeConfig.clearProperty(JiraConnectorConfigKey.TAG_UPSERT_WORKERS);
+    RuntimeConfig.clearProperty(JiraConnectorConfigKey.TAG_SYNC_SCAN);
+    RuntimeConfig.clearProperty(JiraConnectorConfigKey.TAG_SYNC_PARALLEL_PROJECTS);
 
     assertThat(RuntimeConfig.getInt(JiraConnectorConfigKey.TAG_UPSERT_BATCH_SIZE))
         .as("TAG_UPSERT_BATCH_SIZE empty result expected")
@@ -92,6 +102,11 @@ class JiraConnectorSyncNewIssuesTest {
 
   @BeforeEach
   void setUpTest() {
+    RuntimeConfig.clearProperty(JiraConnectorConfigKey.TAG_SYNC_PREFETCH_BATCHES);
+    RuntimeConfig.clearProperty(JiraConnectorConfigKey.TAG_UPSERT_WORKERS);
+    RuntimeConfig.clearProperty(JiraConnectorConfigKey.TAG_SYNC_SCAN);
+    RuntimeConfig.clearProperty(JiraConnectorConfigKey.TAG_SYNC_PARALLEL_PROJECTS);
+    RuntimeConfig.setProperty(JiraConnectorConfigKey.PROJECT_KEYS_FILTER, "WT, IPFLOW");
     reset(jiraDao);
     reset(apiClient);
     reset(connectorStore);
@@ -175,6 +190,239 @@ class JiraConnectorSyncNewIssuesTest {
         .as("Last synced ID saved is from the last item in the issues list");
   }
 
+  @Test
+  void syncNewIssues_counted_for_refresh_batch_size() {
+    connector.resetIssueCount();
+    final int fourteenDaysInMinutes = 20_160;
+    final int refreshesPerFortnight = fourteenDaysInMinutes / 5;
+    when(jiraDao.issueCount(anyString(), anyString())).thenReturn(refreshesPerFortnight * 100L - 1);
+    assertThat(connector.tagRefreshBatchSize())
+        .isEqualTo(99);
+
+    when(connectorStore.getLong(anyString())).thenReturn(Optional.empty());
+    when(jiraDao.findIssuesOrderedById(anyLong(), anyInt(), any()))
+        .thenReturn(ImmutableList.of(randomDataGenerator.randomIssue(), randomDataGenerator.randomIssue()))
+        .thenReturn(ImmutableList.of());
+    connector.syncNewIssues();
+
+    assertThat(connector.tagRefreshBatchSize())
+        .as("Synced issues should be added to the cached issue count")
+        .isEqualTo(100);
+    verify(jiraDao, times(1)).issueCount(anyString(), anyString());
+  }
+
+  @Test
+  void syncNewIssues_pipelined_new_issues_found() throws IOException {
+    RuntimeConfig.setProperty(JiraConnectorConfigKey.TAG_SYNC_PREFETCH_BATCHES, "2");
+    final Issue issue1 = randomDataGenerator.randomIssue().setId(1);
+    final Issue issue2 = randomDataGenerator.randomIssue().setId(2);
+    final Issue issue3 = randomDataGenerator.randomIssue().setId(3);
+
+    when(connectorStore.getLong(anyString())).thenReturn(Optional.empty());
+    when(jiraDao.findIssuesOrderedById(eq(0L), anyInt(), any())).thenReturn(ImmutableList.of(issue1, issue2));
+    when(jiraDao.findIssuesOrderedById(eq(2L), anyInt(), any())).thenReturn(ImmutableList.of(issue3));
+    when(jiraDao.findIssuesOrderedById(eq(3L), anyInt(), any())).thenReturn(ImmutableList.of());
+
+    connector.syncNewIssues();
+
+    verify(apiClient, times(2)).tagUpsertBatch(anyList());
+    final InOrder inOrder = inOrder(connectorStore);
+    inOrder.verify(connectorStore).putLong("last-synced-issue-id", 2L);
+    inOrder.verify(connectorStore).putLong("last-synced-issue-id", 3L);
+    inOrder.verifyNoMoreInteractions();
+  }
+
+  @Test
+  void syncNewIssues_pipelined_upsert_error() throws IOException {
+    RuntimeConfig.setProperty(JiraConnectorConfigKey.TAG_SYNC_PREFETCH_BATCHES, "2");
+    when(jiraDao.findIssuesOrderedById(anyLong(), anyInt(), any()))
+        .thenReturn(ImmutableList.of(randomDataGenerator.randomIssue().setId(1)))
+        .thenReturn(ImmutableList.of(randomDataGenerator.randomIssue().setId(2)))
+        .thenReturn(ImmutableList.of());
+
+    doThrow(new IOException())
+        .when(apiClient).tagUpsertBatch(anyList());
+
+    assertThatThrownBy(() -> connector.syncNewIssues()).isInstanceOf(RuntimeException.class);
+    verify(apiClient, times(1)).tagUpsertBatch(anyList());
+    verify(connectorStore, never()).putLong(anyString(), anyLong());
+  }
+
+  @Test
+  void syncNewIssues_pipelined_db_error() throws IOException {
+    RuntimeConfig.setProperty(JiraConnectorConfigKey.TAG_SYNC_PREFETCH_BATCHES, "2");
+    final Issue issue1 = randomDataGenerator.randomIssue().setId(1);
+    when(jiraDao.findIssuesOrderedById(anyLong(), anyInt(), any()))
+        .thenReturn(ImmutableList.of(issue1))
+        .thenThrow(new RuntimeException("Test exception"));
+
+    assertThatThrownBy(() -> connector.syncNewIssues())
+        .as("Database errors should be rethrown once the batches read before the error are synced")
+        .hasMessage("Test exception");
+    verify(apiClient, times(1)).tagUpsertBatch(anyList());
+    verify(connectorStore, times(1)).putLong("last-synced-issue-id", 1L);
+  }
+
+  @Test
+  void syncNewIssues_parallel_upserts_saved_in_order() throws IOException {
+    RuntimeConfig.setProperty(JiraConnectorConfigKey.TAG_UPSERT_WORKERS, "3");
+    when(jiraDao.findIssuesOrderedById(anyLong(), anyInt(), any()))
+        .thenReturn(ImmutableList.of(randomDataGenerator.randomIssue().setId(1)))
+        .thenReturn(ImmutableList.of(randomDataGenerator.randomIssue().setId(2)))
+        .thenReturn(ImmutableList.of(randomDataGenerator.randomIssue().setId(3)))
+        .thenReturn(ImmutableList.of());
+
+    // The first batch is the slowest to be upserted
+    doAnswer(invocation -> {
+      if (invocation.<List<UpsertTagRequest>>getArgument(0).get(0).getExternalId().equals("1")) {
+        Thread.sleep(200);
+      }
+      return null;
+    }).when(apiClient).tagUpsertBatch(anyList());
+
+    connector.syncNewIssues();
+
+    verify(apiClient, times(3)).tagUpsertBatch(anyList());
+    final InOrder inOrder = inOrder(connectorStore);
+    inOrder.verify(connectorStore).putLong("last-synced-issue-id", 1L);
+    inOrder.verify(connectorStore).putLong("last-synced-issue-id", 2L);
+    inOrder.verify(connectorStore).putLong("last-synced-issue-id", 3L);
+    inOrder.verifyNoMoreInteractions();
+  }
+
+  @Test
+  void syncNewIssues_parallel_upsert_error() throws IOException {
+    RuntimeConfig.setProperty(JiraConnectorConfigKey.TAG_UPSERT_WORKERS, "3");
+    when(jiraDao.findIssuesOrderedById(anyLong(), anyInt(), any()))
+        .thenReturn(ImmutableList.of(randomDataGenerator.randomIssue().setId(1)))
+        .thenReturn(ImmutableList.of(randomDataGenerator.randomIssue().setId(2)))
+        .thenReturn(ImmutableList.of(randomDataGenerator.randomIssue().setId(3)))
+        .thenReturn(ImmutableList.of());
+
+    doAnswer(invocation -> {
+      if (invocation.<List<UpsertTagRequest>>getArgument(0).get(0).getExternalId().equals("2")) {
+        throw new IOException();
+      }
+      return null;
+    }).when(apiClient).tagUpsertBatch(anyList());
+
+    assertThatThrownBy(() -> connector.syncNewIssues()).isInstanceOf(RuntimeException.class);
+    verify(connectorStore, times(1)).putLong("last-synced-issue-id", 1L);
+    verify(connectorStore, never()).putLong("last-synced-issue-id", 3L);
+  }
+
+  @Test
+  void syncNewIssues_pipelined_batch_size_read_per_page() throws IOException {
+    RuntimeConfig.setProperty(JiraConnectorConfigKey.TAG_SYNC_PREFETCH_BATCHES, "2");
+    try {
+      when(jiraDao.findIssuesOrderedById(anyLong(), anyInt(), any()))
+          .thenAnswer(invocation -> {
+            RuntimeConfig.setProperty(JiraConnectorConfigKey.TAG_UPSERT_BATCH_SIZE, "50");
+            return ImmutableList.of(randomDataGenerator.randomIssue().setId(1));
+          })
+          .thenReturn(ImmutableList.of());
+
+      connector.syncNewIssues();
+
+      verify(jiraDao, times(1).description("The batch size should be read again for the next page"))
+          .findIssuesOrderedById(eq(1L), eq(50), any());
+    } finally {
+      RuntimeConfig.setProperty(JiraConnectorConfigKey.TAG_UPSERT_BATCH_SIZE, "100");
+    }
+  }
+
+  @Test
+  void syncNewIssues_cursor_scan() throws IOException {
+    RuntimeConfig.setProperty(JiraConnectorConfigKey.TAG_SYNC_SCAN, "cursor");
+    when(connectorStore.getLong(anyString())).thenReturn(Optional.of(10L));
+    doAnswer(invocation -> {
+      final Consumer<List<Issue>> consumer = invocation.getArgument(2);
+      consumer.accept(ImmutableList.of(randomDataGenerator.randomIssue().setId(11)));
+      consumer.accept(ImmutableList.of(randomDataGenerator.randomIssue().setId(12)));
+      return null;
+    }).when(jiraDao).streamIssuesOrderedById(eq(10L), argThat(batchSize -> batchSize.getAsInt() == 100), any(), any());
+
+    connector.syncNewIssues();
+
+    verify(jiraDao, never()).findIssuesOrderedById(anyLong(), anyInt(), any());
+    verify(apiClient, times(2)).tagUpsertBatch(anyList());
+    final InOrder inOrder = inOrder(connectorStore);
+    inOrder.verify(connectorStore).putLong("last-synced-issue-id", 11L);
+    inOrder.verify(connectorStore).putLong("last-synced-issue-id", 12L);
+  }
+
+  @Test
+  void syncNewIssues_by_project() throws IOException {
+    RuntimeConfig.setProperty(JiraConnectorConfigKey.TAG_SYNC_PARALLEL_PROJECTS, "2");
+    when(connectorStore.getString("project-sync-started")).thenReturn(Optional.of("WT"));
+    when(connectorStore.getLong("last-synced-issue-id-WT")).thenReturn(Optional.of(10L));
+    when(jiraDao.findIssuesOrderedById(10L, 100, "WT"))
+        .thenReturn(ImmutableList.of(randomDataGenerator.randomIssue("WT-11").setId(11)))
+        .thenReturn(ImmutableList.of());
+    when(jiraDao.findIssuesOrderedById(0L, 100, "IPFLOW"))
+        .thenReturn(ImmutableList.of(randomDataGenerator.randomIssue("IPFLOW-1").setId(5)))
+        .thenReturn(ImmutableList.of());
+
+    connector.syncNewIssues();
+
+    verify(apiClient, times(2)).tagUpsertBatch(anyList());
+    verify(connectorStore, times(1).description("The project added to the filter should be backfilled"))
+        .putLong("last-synced-issue-id-IPFLOW", 0L);
+    verify(connectorStore, times(1)).putLong("last-synced-issue-id-WT", 11L);
+    verify(connectorStore, times(1)).putLong("last-synced-issue-id-IPFLOW", 5L);
+    verify(connectorStore, never()).putLong(eq("last-synced-issue-id"), anyLong());
+    verify(connectorStore, times(1)).putString("project-sync-started", "WT,IPFLOW");
+  }
+
+  @Test
+  void syncNewIssues_records_projects_of_single_pass_sync() {
+    connector.syncNewIssues();
+
+    verify(connectorStore, times(1)).putString("global-sync-projects", "WT,IPFLOW");
+  }
+
+  @Test
+  void syncNewIssues_by_project_starts_from_global_progress() {
+    RuntimeConfig.setProperty(JiraConnectorConfigKey.TAG_SYNC_PARALLEL_PROJECTS, "2");
+    when(connectorStore.getLong("last-synced-issue-id")).thenReturn(Optional.of(42L));
+
+    connector.syncNewIssues();
+
+    verify(connectorStore, times(1)).putLong("last-synced-issue-id-WT", 42L);
+    verify(connectorStore, times(1)).putLong("last-synced-issue-id-IPFLOW", 42L);
+    verify(connectorStore, times(1)).putString("project-sync-started", "WT,IPFLOW");
+  }
+
+  @Test
+  void syncNewIssues_by_project_backfills_project_new_to_filter() {
+    RuntimeConfig.setProperty(JiraConnectorConfigKey.TAG_SYNC_PARALLEL_PROJECTS, "2");
+    when(connectorStore.getString("global-sync-projects")).thenReturn(Optional.of("WT"));
+    when(connectorStore.getLong("last-synced-issue-id")).thenReturn(Optional.of(42L));
+
+    connector.syncNewIssues();
+
+    verify(connectorStore, times(1)).putLong("last-synced-issue-id-WT", 42L);
+    verify(connectorStore, times(1).description("Issues of IPFLOW were never synced"))
+        .putLong("last-synced-issue-id-IPFLOW", 0L);
+    verify(connectorStore, never()).putLong("last-synced-issue-id-IPFLOW", 42L);
+  }
+
+  @Test
+  void syncNewIssues_by_project_error_pauses_project() {
+    RuntimeConfig.setProperty(JiraConnectorConfigKey.TAG_SYNC_PARALLEL_PROJECTS, "2");
+    RuntimeConfig.setProperty(JiraConnectorConfigKey.PROJECT_KEYS_FILTER, "BROKEN, OK");
+    when(connectorStore.getString("project-sync-started")).thenReturn(Optional.of("BROKEN,OK"));
+    when(jiraDao.findIssuesOrderedById(anyLong(), anyInt(), eq("BROKEN"))).thenThrow(new RuntimeException());
+
+    assertThatThrownBy(() -> connector.syncNewIssues())
+        .isInstanceOf(RuntimeException.class)
+        .hasMessageContaining("BROKEN");
+    connector.syncNewIssues();
+
+    verify(jiraDao, times(1)).findIssuesOrderedById(anyLong(), anyInt(), eq("BROKEN"));
+    verify(jiraDao, times(2)).findIssuesOrderedById(anyLong(), anyInt(), eq("OK"));
+  }
+
   @Test
   void getProjectKeys_some_configured() {
     String[] projectKeys = connector.getProjectKeysFilter();
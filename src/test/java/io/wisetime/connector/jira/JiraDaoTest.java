@@ -7,6 +7,7 @@ package io.wisetime.connector.jira;
 import static io.wisetime.connector.jira.ConnectorLauncher.JiraConnectorConfigKey;
 import static io.wisetime.connector.jira.ConnectorLauncher.JiraDbModule;
 import static io.wisetime.connector.jira.JiraDao.Issue;
+import static io.wisetime.connector.jira.JiraDao.IssueLookup;
 import static io.wisetime.connector.jira.JiraDao.Worklog;
 import static io.wisetime.connector.jira.RandomDataGenerator.randomIssue;
 import static io.wisetime.connector.jira.RandomDataGenerator.randomIssues;
@@ -16,6 +17,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import com.github.javafaker.Faker;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.inject.AbstractModule;
 import com.google.inject.Guice;
 import com.google.inject.Inject;
@@ -24,6 +26,11 @@ import com.google.inject.Provider;
 import com.zaxxer.hikari.HikariDataSource;
 import io.wisetime.connector.config.RuntimeConfig;
 import io.wisetime.generated.connect.UpsertTagRequest;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -32,6 +39,7 @@ import java.util.stream.IntStream;
 import org.assertj.core.data.MapEntry;
 import org.codejargon.fluentjdbc.api.FluentJdbc;
 import org.codejargon.fluentjdbc.api.FluentJdbcBuilder;
+import org.codejargon.fluentjdbc.api.mapper.Mappers;
 import org.codejargon.fluentjdbc.api.query.Query;
 import org.flywaydb.core.Flyway;
 import org.flywaydb.core.api.MigrationVersion;
@@ -50,6 +58,7 @@ class JiraDaoTest {
   private static final String TEST_JDBC_URL = "jdbc:h2:mem:test_jira_db;DB_CLOSE_DELAY=-1";
   private static final Faker FAKER = new Faker();
   private static JiraDao jiraDao;
+  private static ConnectorMetrics metrics;
   private static FluentJdbc fluentJdbc;
 
   @BeforeAll
@@ -64,6 +73,7 @@ class JiraDaoTest {
     );
 
     jiraDao = injector.getInstance(JiraDao.class);
+    metrics = injector.getInstance(ConnectorMetrics.class);
     fluentJdbc = new FluentJdbcBuilder().connectionProvider(injector.getInstance(HikariDataSource.class)).build();
 
     // Apply Jira DB schema to test db
@@ -93,6 +103,9 @@ class JiraDaoTest {
     query.update("DELETE FROM sequence_value_item").run();
     query.update("DELETE FROM propertyentry").run();
     query.update("DELETE FROM propertystring").run();
+    jiraDao.invalidateDimensionCache();
+    jiraDao.invalidateUserDirectory();
+    jiraDao.discardReservedWorklogIds();
   }
 
   @Test
@@ -101,7 +114,7 @@ class JiraDaoTest {
     // because of internal working of fluent jdbc
     jiraDao.asTransaction(() -> {
       jiraDao.pingDb();
-      jiraDao.findIssueByTagName("Not a jira tag");
+      jiraDao.findIssuesByTagNames(ImmutableList.of("Not a jira tag"));
     });
   }
 
@@ -201,21 +214,63 @@ class JiraDaoTest {
   }
 
   @Test
-  void findIssueByTagName() {
+  void findIssuesByTagNames_single_tag() {
     final Issue issue = insertRandomIssueToDb();
+    final String tagName = issue.getProjectKey() + "-" + issue.getIssueNumber();
 
-    assertThat(jiraDao.findIssueByTagName(issue.getProjectKey() + "-" + issue.getIssueNumber()))
+    assertThat(jiraDao.findIssuesByTagNames(ImmutableList.of(tagName)).getIssues())
         .as("Should return Jira issue if it exists in DB")
-        .contains(issue);
-    assertThat(jiraDao.findIssueByTagName(issue.getProjectKey() + "X-" + issue.getIssueNumber()))
+        .containsOnly(MapEntry.entry(tagName, issue));
+    assertThat(jiraDao.findIssuesByTagNames(ImmutableList.of(issue.getProjectKey() + "X-" + issue.getIssueNumber()))
+        .getIssues())
         .as("Should return empty if tag name is not in DB")
         .isEmpty();
   }
 
   @Test
-  void findIssueByTagName_incorrectFormat() {
-    assertThat(jiraDao.findIssueByTagName("IAMAJIRAISSUE")).isEmpty();
-    assertThat(jiraDao.findIssueByTagName("I-AM-A-JIRAISSUE")).isEmpty();
+  void findIssuesByTagNames() {
+    saveProject(1L, "WT");
+    saveProject(2L, "OTHER");
+    final Issue wt1 = randomIssue("WT-1").setId(1);
+    final Issue wt2 = randomIssue("WT-2").setId(2);
+    final Issue other1 = randomIssue("OTHER-1").setId(3);
+    saveJiraIssue(1L, wt1);
+    saveJiraIssue(1L, wt2);
+    saveJiraIssue(2L, other1);
+
+    final IssueLookup lookup = jiraDao.findIssuesByTagNames(
+        ImmutableList.of("WT-1", "OTHER-1", "WT-2", "WT-3", "MISSING-1", "Not a jira tag")
+    );
+    assertThat(lookup.getIssues())
+        .as("Issues of several projects should be found by tag name")
+        .containsOnly(
+            MapEntry.entry("WT-1", wt1),
+            MapEntry.entry("WT-2", wt2),
+            MapEntry.entry("OTHER-1", other1)
+        );
+    assertThat(lookup.getMissingTagNames())
+        .as("Tags of unknown projects or issues should be reported as missing")
+        .containsExactlyInAnyOrder("WT-3", "MISSING-1", "Not a jira tag");
+  }
+
+  @Test
+  void findIssuesByTagNames_project_key_case() {
+    saveProject(1L, "WT");
+    final Issue wt1 = randomIssue("WT-1").setId(1);
+    saveJiraIssue(1L, wt1);
+
+    assertThat(jiraDao.findIssuesByTagNames(ImmutableList.of("wt-1")).getIssues())
+        .as("Project keys should be matched regardless of case")
+        .containsOnly(MapEntry.entry("wt-1", wt1));
+    assertThat(jiraDao.issueCount("wt"))
+        .isEqualTo(1);
+  }
+
+  @Test
+  void findIssuesByTagNames_incorrectFormat() {
+    final IssueLookup lookup = jiraDao.findIssuesByTagNames(ImmutableList.of("IAMAJIRAISSUE", "I-AM-A-JIRAISSUE"));
+    assertThat(lookup.getIssues()).isEmpty();
+    assertThat(lookup.getMissingTagNames()).containsExactlyInAnyOrder("IAMAJIRAISSUE", "I-AM-A-JIRAISSUE");
   }
 
   @Test
@@ -258,6 +313,135 @@ class JiraDaoTest {
         .isEmpty();
   }
 
+  @Test
+  void findIssuesOrderedById_severalProjects() {
+    saveProject(1L, "WT");
+    saveProject(2L, "OTHER");
+    saveProject(3L, "SKIP");
+
+    final List<Issue> issues = IntStream.rangeClosed(1, 9)
+        .mapToObj(id -> {
+          final long projectId = (id % 3) + 1;
+          final String projectKey = ImmutableList.of("WT", "OTHER", "SKIP").get((int) projectId - 1);
+          final Issue issue = randomIssue(projectKey + "-" + id).setId(id);
+          saveJiraIssue(projectId, issue);
+          return issue;
+        })
+        .collect(Collectors.toList());
+    final List<Issue> matchingIssues = issues.stream()
+        .filter(issue -> !issue.getProjectKey().equals("SKIP"))
+        .collect(Collectors.toList());
+
+    assertThat(jiraDao.findIssuesOrderedById(0, 4, "WT", "OTHER"))
+        .as("Issues of each project should be merged in ID order")
+        .containsExactlyElementsOf(matchingIssues.subList(0, 4));
+    assertThat(jiraDao.findIssuesOrderedById(matchingIssues.get(3).getId(), 4, "WT", "OTHER"))
+        .as("Should be able retrieve the next page of matching issues")
+        .containsExactlyElementsOf(matchingIssues.subList(4, 6));
+  }
+
+  @Test
+  void findIssuesOrderedById_newProjectAndIssueType() {
+    saveProject(1L, "WT");
+    final Issue wtIssue = randomIssue("WT-1").setId(1);
+    saveJiraIssue(1L, wtIssue);
+    assertThat(jiraDao.findIssuesOrderedById(0, 100))
+        .containsExactly(wtIssue);
+
+    saveProject(2L, "NEW");
+    final Issue newIssue = randomIssue("NEW-1").setId(2);
+    saveJiraIssue(2L, newIssue);
+    // Issue of a project that doesn't exist
+    fluentJdbc.query().update("INSERT INTO jiraissue (id, project, issuenum, summary, timespent) "
+        + "VALUES (3, 99, 1, '', 0)")
+        .run();
+
+    assertThat(jiraDao.findIssuesOrderedById(0, 100))
+        .as("Project and issue type created after the dimension cache was loaded should be found, "
+            + "issues of unknown projects should be left out")
+        .containsExactly(wtIssue, newIssue);
+    assertThat(jiraDao.findIssuesOrderedById(0, 100, "MISSING"))
+        .as("Project key filter doesn't match any project")
+        .isEmpty();
+  }
+
+  @Test
+  void streamIssuesOrderedById() {
+    saveProject(1L, "WT");
+    saveProject(2L, "OTHER");
+
+    final List<Issue> savedWtIssues = IntStream.range(0, 10)
+        .mapToObj(idx -> randomIssue("WT-" + (idx + 1)).setId(idx + 1))
+        .peek(issue -> saveJiraIssue(1L, issue))
+        .collect(Collectors.toList());
+    saveJiraIssue(2L, randomIssue("OTHER-1").setId(11));
+
+    final List<List<Issue>> batches = new ArrayList<>();
+    jiraDao.streamIssuesOrderedById(2, () -> 3, batches::add, "WT");
+
+    assertThat(batches)
+        .as("Issues should be handed over in batches of the requested size, in ID order")
+        .containsExactly(
+            savedWtIssues.subList(2, 5),
+            savedWtIssues.subList(5, 8),
+            savedWtIssues.subList(8, 10)
+        );
+
+    batches.clear();
+    jiraDao.streamIssuesOrderedById(11, () -> 3, batches::add);
+    assertThat(batches)
+        .as("Start ID is beyond range")
+        .isEmpty();
+  }
+
+  @Test
+  void streamIssuesOrderedById_batch_size_changes() {
+    saveProject(1L, "WT");
+    final List<Issue> savedIssues = IntStream.range(0, 10)
+        .mapToObj(idx -> randomIssue("WT-" + (idx + 1)).setId(idx + 1))
+        .peek(issue -> saveJiraIssue(1L, issue))
+        .collect(Collectors.toList());
+    final Iterator<Integer> batchSizes = ImmutableList.of(2, 5, 3, 3).iterator();
+
+    final List<List<Issue>> batches = new ArrayList<>();
+    jiraDao.streamIssuesOrderedById(0, batchSizes::next, batches::add);
+
+    assertThat(batches)
+        .as("Each batch should take the batch size current when it is started")
+        .containsExactly(
+            savedIssues.subList(0, 2),
+            savedIssues.subList(2, 7),
+            savedIssues.subList(7, 10)
+        );
+  }
+
+  @Test
+  void findIssuesOrderedByUpdated() {
+    saveProject(1L, "WT");
+    saveProject(2L, "OTHER");
+
+    final Instant updated = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+    final Issue first = randomIssue("WT-1").setId(3).setUpdated(updated.minusSeconds(60));
+    final Issue second = randomIssue("WT-2").setId(1).setUpdated(updated);
+    final Issue third = randomIssue("WT-3").setId(2).setUpdated(updated);
+    final Issue other = randomIssue("OTHER-1").setId(4).setUpdated(updated.plusSeconds(60));
+    ImmutableList.of(first, second, third).forEach(issue -> saveJiraIssue(1L, issue));
+    saveJiraIssue(2L, other);
+
+    assertThat(jiraDao.findIssuesOrderedByUpdated(updated.minusSeconds(120), 0, 100))
+        .as("Issues should be ordered by update time, then by ID")
+        .containsExactly(first, second, third, other);
+    assertThat(jiraDao.findIssuesOrderedByUpdated(updated, 1, 100))
+        .as("Issues updated at the same time as the last issue should be found by ID")
+        .containsExactly(third, other);
+    assertThat(jiraDao.findIssuesOrderedByUpdated(updated.minusSeconds(120), 0, 2, "WT"))
+        .as("Should be able retrieve matching issues filtered by project key")
+        .containsExactly(first, second);
+    assertThat(jiraDao.findIssuesOrderedByUpdated(other.getUpdated(), 4, 100))
+        .as("No issues updated after the last issue")
+        .isEmpty();
+  }
+
   @Test
   void findUsernameByEmail() {
     fluentJdbc.query().update("INSERT INTO cwd_user (id, user_name, lower_email_address) VALUES (1, ?, ?)")
@@ -275,6 +459,32 @@ class JiraDaoTest {
         .isEmpty();
   }
 
+  @Test
+  void findUsernameByEmail_userCreatedAfterLoad() {
+    fluentJdbc.query().update("INSERT INTO cwd_user (id, user_name, lower_user_name, lower_email_address, active) "
+        + "VALUES (1, ?, ?, ?, 0)")
+        .params("Former", "former", "shared@baz.com")
+        .run();
+    assertThat(jiraDao.findUsernameByEmail("shared@baz.com"))
+        .contains("Former");
+
+    fluentJdbc.query().update("INSERT INTO cwd_user (id, user_name, lower_user_name, lower_email_address, active) "
+        + "VALUES (2, ?, ?, ?, 1)")
+        .params("NewUser", "newuser", "new@baz.com")
+        .run();
+    assertThat(jiraDao.userExists("NEWUSER"))
+        .as("A user created after the directory was loaded should be found in the database")
+        .isTrue();
+
+    fluentJdbc.query().update("UPDATE cwd_user SET lower_email_address = ? WHERE id = 2")
+        .params("shared@baz.com")
+        .run();
+    jiraDao.invalidateUserDirectory();
+    assertThat(jiraDao.findUsernameByEmail("Shared@baz.com"))
+        .as("The active user should be preferred if several users share an email address")
+        .contains("NewUser");
+  }
+
   @Test
   void userExists() {
     fluentJdbc.query().update("INSERT INTO cwd_user (id, user_name, lower_user_name) VALUES (1, ?, ?)")
@@ -293,26 +503,40 @@ class JiraDaoTest {
   }
 
   @Test
-  void updateIssueTimeSpent() {
-    final Long projectId = 1L;
-    final Issue issue = randomIssue().setTimeSpent(200);
-    saveProject(projectId, issue.getProjectKey());
-    saveJiraIssue(projectId, issue);
+  void addIssuesTimeSpent() {
+    saveProject(1L, "WT");
+    final Issue wt1 = randomIssue("WT-1").setId(1).setTimeSpent(100);
+    final Issue wt2 = randomIssue("WT-2").setId(2);
+    saveJiraIssue(1L, wt1);
+    saveJiraIssue(1L, wt2);
+    fluentJdbc.query().update("UPDATE jiraissue SET timespent = NULL WHERE id = 2").run();
+
+    assertThat(jiraDao.addIssuesTimeSpent(ImmutableMap.of(1L, 700L, 2L, 800L, 3L, 900L)))
+        .as("Only the issue that doesn't exist should be reported missing")
+        .containsExactly(3L);
+
+    assertThat(jiraDao.findIssuesOrderedById(0, 10).stream().map(Issue::getTimeSpent))
+        .as("Time spent of all issues should be incremented, starting from zero if not set")
+        .containsExactly(800L, 800L);
+  }
 
-    jiraDao.updateIssueTimeSpent(issue.getId(), 700);
+  @Test
+  void createWorklogs() {
+    final List<Worklog> worklogs = ImmutableList.of(randomWorklog(), randomWorklog(), randomWorklog());
+    jiraDao.createWorklogs(worklogs);
 
-    assertThat(jiraDao.findIssueByTagName(issue.getProjectKey() + "-" + issue.getIssueNumber()).get().getTimeSpent())
-        .as("Should be able to update total time spent")
-        .isEqualTo(700);
+    assertThat(IntStream.rangeClosed(10299, 10301).mapToObj(this::getWorklog))
+        .as("Worklogs should be saved with consecutive IDs of the reserved block")
+        .containsExactly(Optional.of(worklogs.get(0)), Optional.of(worklogs.get(1)), Optional.of(worklogs.get(2)));
   }
 
   @Test
-  void createWorklog_newRecord() {
+  void createWorklogs_newRecord() {
     Worklog workLog = randomWorklog();
-    final Optional<Long> startingWorklogId = jiraDao.getWorklogSeqId();
+    final Optional<Long> startingWorklogId = getWorklogSeqId();
     assertThat(startingWorklogId).isEmpty();
 
-    jiraDao.createWorklog(workLog);
+    jiraDao.createWorklogs(ImmutableList.of(workLog));
 
 
     assertThat(getWorklog(10299).get()) // 10299 is the starting worklog seq id we set if table is empty
@@ -321,25 +545,133 @@ class JiraDaoTest {
   }
 
   @Test
-  void createWorklog_withExistingWorklog() {
+  void createWorklogs_withExistingWorklog() {
     // Create initial worklog
     final Worklog workLogUtc = randomWorklog();
-    jiraDao.createWorklog(workLogUtc);
+    jiraDao.createWorklogs(ImmutableList.of(workLogUtc));
 
     // Create another worklog
     Worklog anotherWorkLog = randomWorklog();
-    final Optional<Long> currentWorkLogId = jiraDao.getWorklogSeqId();
+    final Optional<Long> currentWorkLogId = getWorklogSeqId();
     assertThat(currentWorkLogId)
-        .as("Should contain the worklog ID of the previously created worklog")
-        .isPresent();
-    jiraDao.createWorklog(anotherWorkLog);
+        .as("Should contain the end of the block of worklog IDs reserved for the previously created worklog")
+        .contains(10399L);
+    jiraDao.createWorklogs(ImmutableList.of(anotherWorkLog));
 
-    // Check the latest created worklog
-    Worklog savedWorklog = getWorklog(currentWorkLogId.get() + 199).get();
-
-    assertThat(savedWorklog) // we increment 199 to generate new worklog seq ID
-        .as("Worklog should be saved with created time set in the timezone specified")
+    assertThat(getWorklog(10300).get())
+        .as("Worklog should be saved with the next ID of the reserved block")
         .isEqualTo(anotherWorkLog);
+    assertThat(getWorklogSeqId())
+        .as("No more IDs should be reserved until the block runs out")
+        .isEqualTo(currentWorkLogId);
+  }
+
+  @Test
+  void createWorklogs_reservesNextBlock() {
+    fluentJdbc.query().update("INSERT INTO SEQUENCE_VALUE_ITEM (seq_name, seq_id) VALUES ('Worklog', 20000)").run();
+    final List<Long> worklogIds = new ArrayList<>();
+    for (int i = 0; i < 101; i++) {
+      jiraDao.createWorklogs(ImmutableList.of(randomWorklog()));
+    }
+    fluentJdbc.query().select("SELECT id FROM worklog ORDER BY id")
+        .iterateResult(rs -> rs.getLong(1), worklogIds::add);
+
+    assertThat(worklogIds)
+        .as("Blocks of worklog IDs should start 199 after the sequence value")
+        .startsWith(20199L, 20200L)
+        .endsWith(20298L, 20498L);
+    assertThat(getWorklogSeqId())
+        .as("Jira should allocate its next IDs after the reserved blocks")
+        .contains(20598L);
+  }
+
+  @Test
+  void createWorklogs_reservedIdsSurviveRollback() {
+    try {
+      jiraDao.asTransaction(() -> {
+        jiraDao.createWorklogs(ImmutableList.of(randomWorklog()));
+        throw new IllegalStateException("Test rollback");
+      });
+    } catch (IllegalStateException e) {
+      // Expected
+    }
+
+    assertThat(getWorklog(10299))
+        .as("Worklog should have been rolled back")
+        .isEmpty();
+    assertThat(getWorklogSeqId())
+        .as("Reserved worklog IDs should not be returned to Jira by the rollback")
+        .contains(10399L);
+  }
+
+  @Test
+  void asTransactionWithSavepoints() {
+    final Worklog first = randomWorklog();
+    final Worklog last = randomWorklog();
+    final IllegalStateException failure = new IllegalStateException("Test rollback");
+
+    final List<Optional<RuntimeException>> failures = jiraDao.asTransactionWithSavepoints(ImmutableList.of(
+        () -> jiraDao.createWorklogs(ImmutableList.of(first)),
+        () -> {
+          jiraDao.createWorklogs(ImmutableList.of(randomWorklog()));
+          throw failure;
+        },
+        () -> jiraDao.createWorklogs(ImmutableList.of(last))
+    ));
+
+    assertThat(failures)
+        .as("Only the failed write should be reported")
+        .containsExactly(Optional.empty(), Optional.of(failure), Optional.empty());
+    assertThat(getWorklog(10299))
+        .contains(first);
+    assertThat(getWorklog(10300))
+        .as("Failed write should have been rolled back to its savepoint")
+        .isEmpty();
+    assertThat(getWorklog(10301))
+        .as("Writes after the failed write should still be committed")
+        .contains(last);
+  }
+
+  @Test
+  void registerPoolMetrics_scans_use_scan_pool() {
+    final ConnectorMetrics poolMetrics = new ConnectorMetrics();
+    jiraDao.registerPoolMetrics(poolMetrics);
+    final Number scanAcquisitions = poolMetrics.snapshot().get("db_pool_scan_acquisitions_total");
+
+    jiraDao.issueCount();
+
+    assertThat(poolMetrics.snapshot())
+        .containsKeys("db_pool_primary_active_connections", "db_pool_primary_wait_millis_total",
+            "db_pool_scan_active_connections", "db_pool_scan_wait_millis_total");
+    assertThat(poolMetrics.snapshot().get("db_pool_scan_acquisitions_total").longValue())
+        .as("Issue count should be read over the scan pool")
+        .isEqualTo(scanAcquisitions.longValue() + 1);
+  }
+
+  @Test
+  void createWorklogs_reserves_ids_over_own_connection() {
+    final ConnectorMetrics poolMetrics = new ConnectorMetrics();
+    jiraDao.registerPoolMetrics(poolMetrics);
+    final long sequenceAcquisitions =
+        poolMetrics.snapshot().get("db_pool_worklog_sequence_acquisitions_total").longValue();
+
+    jiraDao.asTransaction(() -> jiraDao.createWorklogs(ImmutableList.of(randomWorklog())));
+
+    assertThat(poolMetrics.snapshot().get("db_pool_worklog_sequence_acquisitions_total").longValue())
+        .as("The worklog ID block should be reserved without a second connection of the main pool")
+        .isEqualTo(sequenceAcquisitions + 1);
+  }
+
+  @Test
+  void method_latency_recorded() {
+    jiraDao.issueCount();
+    jiraDao.findIssuesOrderedById(0, 10);
+
+    assertThat(metrics.prometheusText())
+        .contains("wisetime_jira_jira_dao_duration_seconds_count{operation=\"findIssuesOrderedById\"}")
+        .contains("wisetime_jira_jira_dao_errors_total{operation=\"issueCount\"} 0")
+        .as("Methods called by Guice to inject the DAO should not be recorded")
+        .doesNotContain("operation=\"useScanPool\"");
   }
 
   private void saveProject(Long projecId, String projectKey) {
@@ -354,15 +686,16 @@ class JiraDaoTest {
         .params(issueTypeId, issue.getIssueType())
         .run();
 
-    fluentJdbc.query().update("INSERT INTO jiraissue (id, project, issuenum, summary, timespent, issuetype) "
-        + "VALUES (?, ?, ?, ?, ?, ?)")
+    fluentJdbc.query().update("INSERT INTO jiraissue (id, project, issuenum, summary, timespent, issuetype, updated) "
+        + "VALUES (?, ?, ?, ?, ?, ?, ?)")
         .params(
             issue.getId(),
             projectId,
             issue.getIssueNumber(),
             issue.getSummary(),
             issue.getTimeSpent(),
-            issueTypeId
+            issueTypeId,
+            Timestamp.from(issue.getUpdated())
         )
         .run();
   }
@@ -376,6 +709,11 @@ class JiraDaoTest {
     return issue;
   }
 
+  private Optional<Long> getWorklogSeqId() {
+    return fluentJdbc.query().select("SELECT seq_id FROM SEQUENCE_VALUE_ITEM WHERE seq_name='Worklog'")
+        .firstResult(Mappers.singleLong());
+  }
+
   private Optional<Worklog> getWorklog(final long worklogId) {
     return fluentJdbc.query().select("SELECT issueid, author, timeworked, created, worklogbody FROM worklog WHERE id = ?")
         .params(worklogId)
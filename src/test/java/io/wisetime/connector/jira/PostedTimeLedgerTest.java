@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2026 Practice Insight Pty Ltd. All Rights Reserved.
+ */
+
+package io.wisetime.connector.jira;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class PostedTimeLedgerTest {
+
+  @TempDir
+  Path dataDir;
+
+  @Test
+  void contains() {
+    final PostedTimeLedger ledger = new PostedTimeLedger(Optional.empty(), Duration.ofDays(30));
+    ledger.add("posted");
+    ledger.add("expired", Instant.now().minus(31, ChronoUnit.DAYS));
+
+    assertThat(ledger.contains("posted"))
+        .isTrue();
+    assertThat(ledger.contains("never-posted"))
+        .isFalse();
+    assertThat(ledger.contains("expired"))
+        .as("Time groups posted before the retention period should be forgotten")
+        .isFalse();
+  }
+
+  @Test
+  void survives_restart() throws IOException {
+    final Path file = dataDir.resolve("posted-time-groups.bin");
+    final PostedTimeLedger ledger = new PostedTimeLedger(Optional.of(file), Duration.ofDays(30));
+    ledger.add("expired", Instant.now().minus(31, ChronoUnit.DAYS));
+    ledger.add("posted-1");
+    ledger.add("posted-2");
+    // A record that was only partially written when the connector stopped
+    Files.write(file, new byte[] {0, 0, 1}, StandardOpenOption.APPEND);
+
+    final PostedTimeLedger reloaded = new PostedTimeLedger(Optional.of(file), Duration.ofDays(30));
+    assertThat(reloaded.contains("posted-1") && reloaded.contains("posted-2"))
+        .isTrue();
+    assertThat(reloaded.size())
+        .as("Expired time groups should be compacted away on load")
+        .isEqualTo(2);
+
+    reloaded.add("posted-3");
+    assertThat(new PostedTimeLedger(Optional.of(file), Duration.ofDays(30)).contains("posted-3"))
+        .as("New records should be appended after the partial record was dropped")
+        .isTrue();
+  }
+}
@@ -11,6 +11,7 @@ import com.github.javafaker.Faker;
 import com.google.common.base.Preconditions;
 import io.wisetime.generated.connect.Tag;
 import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
@@ -40,7 +41,9 @@ class RandomDataGenerator {
         .setIssueNumber(tagParts[1])
         .setSummary(FAKER.lorem().characters(0, 100))
         .setTimeSpent(0L)
-        .setIssueType(FAKER.lorem().word());
+        .setIssueType(FAKER.lorem().word())
+        .setUpdated(Instant.ofEpochMilli(FAKER.date().past(365, TimeUnit.DAYS).getTime())
+            .truncatedTo(ChronoUnit.SECONDS));
   }
 
   static List<Issue> randomIssues(int count) {
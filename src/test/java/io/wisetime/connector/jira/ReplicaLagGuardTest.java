@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2026 Practice Insight Pty Ltd. All Rights Reserved.
+ */
+
+package io.wisetime.connector.jira;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+
+class ReplicaLagGuardTest {
+
+  private static final Instant UPDATED = Instant.parse("2026-01-01T00:00:00Z");
+
+  private final AtomicReference<Instant> primaryLastUpdated = new AtomicReference<>(Instant.EPOCH);
+  private final AtomicReference<Instant> replicaLastUpdated = new AtomicReference<>(Instant.EPOCH);
+
+  @Test
+  void replicaUsable_before_first_check() {
+    assertThat(guard(Duration.ofMinutes(1)).replicaUsable())
+        .as("Reads go to the primary until the replica has been checked")
+        .isFalse();
+  }
+
+  @Test
+  void replicaUsable_caught_up() {
+    primaryLastUpdated.set(UPDATED);
+    replicaLastUpdated.set(UPDATED);
+    final ReplicaLagGuard guard = guard(Duration.ofMinutes(1));
+    guard.check();
+    assertThat(guard.replicaUsable())
+        .isTrue();
+  }
+
+  @Test
+  void replicaUsable_behind_without_old_enough_sample() {
+    primaryLastUpdated.set(UPDATED);
+    replicaLastUpdated.set(UPDATED.minusSeconds(1));
+    final ReplicaLagGuard guard = guard(Duration.ofMinutes(1));
+    guard.check();
+    assertThat(guard.replicaUsable())
+        .as("Without a sample as old as the max lag, the replica has to match the primary")
+        .isFalse();
+  }
+
+  @Test
+  void replicaUsable_behind_within_max_lag() throws Exception {
+    final ReplicaLagGuard guard = guard(Duration.ofMillis(50));
+    primaryLastUpdated.set(UPDATED);
+    replicaLastUpdated.set(UPDATED);
+    guard.check();
+    assertThat(guard.replicaUsable())
+        .isTrue();
+
+    Thread.sleep(100);
+    // Only an update on the primary, no new issues
+    primaryLastUpdated.set(UPDATED.plusSeconds(10));
+    guard.check();
+    assertThat(guard.replicaUsable())
+        .as("The replica has caught up with the primary of more than the max lag ago")
+        .isTrue();
+
+    Thread.sleep(100);
+    guard.check();
+    assertThat(guard.replicaUsable())
+        .as("The replica has not applied the update within the max lag")
+        .isFalse();
+
+    replicaLastUpdated.set(UPDATED.plusSeconds(10));
+    guard.check();
+    assertThat(guard.replicaUsable())
+        .isTrue();
+  }
+
+  @Test
+  void replicaUsable_check_fails() {
+    final ReplicaLagGuard guard = new ReplicaLagGuard(
+        primaryLastUpdated::get,
+        () -> {
+          throw new RuntimeException("Replica unavailable");
+        },
+        Duration.ofMinutes(1)
+    );
+    guard.check();
+    assertThat(guard.replicaUsable())
+        .isFalse();
+  }
+
+  @Test
+  void start_checks_in_background() throws Exception {
+    primaryLastUpdated.set(UPDATED);
+    replicaLastUpdated.set(UPDATED);
+    final ReplicaLagGuard guard = guard(Duration.ofMinutes(1));
+    guard.start(Duration.ofMillis(10));
+    try {
+      for (int i = 0; i < 100 && !guard.replicaUsable(); i++) {
+        Thread.sleep(10);
+      }
+      assertThat(guard.replicaUsable())
+          .isTrue();
+    } finally {
+      guard.stop();
+    }
+  }
+
+  private ReplicaLagGuard guard(final Duration maxLag) {
+    return new ReplicaLagGuard(primaryLastUpdated::get, replicaLastUpdated::get, maxLag);
+  }
+}
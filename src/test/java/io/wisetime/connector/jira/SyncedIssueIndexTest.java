@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2026 Practice Insight Pty Ltd. All Rights Reserved.
+ */
+
+package io.wisetime.connector.jira;
+
+import static io.wisetime.connector.jira.JiraDao.Issue;
+import static io.wisetime.connector.jira.RandomDataGenerator.randomIssue;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SyncedIssueIndexTest {
+
+  @TempDir
+  Path dataDir;
+
+  @Test
+  void syncedIdsAfter() {
+    final SyncedIssueIndex index = newIndex();
+    index.addAll(issues(1, 10));
+    index.addAll(issues(5, 20));
+
+    assertThat(index.size()).isEqualTo(20);
+    assertThat(index.syncedIdsAfter(0, 3))
+        .containsExactly(1L, 2L, 3L);
+    assertThat(index.syncedIdsAfter(18, 5))
+        .containsExactly(19L, 20L);
+
+    index.removeAll(ImmutableList.of(19L));
+    assertThat(index.syncedIdsAfter(18, 5))
+        .containsExactly(20L);
+  }
+
+  @Test
+  void findKeys() {
+    final SyncedIssueIndex index = newIndex();
+    index.addAll(ImmutableList.of(randomIssue("WT-1").setId(100), randomIssue("OTHER-7").setId(200)));
+
+    assertThat(index.findKeys(ImmutableSet.of(200L, 300L)))
+        .containsOnlyKeys(200L)
+        .containsEntry(200L, "OTHER-7");
+  }
+
+  @Test
+  void moved_issue_key_is_recorded() {
+    final SyncedIssueIndex index = newIndex();
+    index.addAll(ImmutableList.of(randomIssue("WT-1").setId(100)));
+    index.addAll(ImmutableList.of(randomIssue("OTHER-7").setId(100)));
+
+    assertThat(index.findKeys(ImmutableSet.of(100L)))
+        .as("The key the issue was moved to should be found")
+        .containsEntry(100L, "OTHER-7");
+    index.save();
+    index.addAll(ImmutableList.of(randomIssue("MOVED-3").setId(100)));
+    index.save();
+
+    final SyncedIssueIndex restarted = newIndex();
+    assertThat(restarted.findKeys(ImmutableSet.of(100L)))
+        .containsEntry(100L, "MOVED-3");
+    assertThat(restarted.size())
+        .isOne();
+  }
+
+  @Test
+  void unchanged_issue_key_is_not_logged_again() throws IOException {
+    final SyncedIssueIndex index = newIndex();
+    index.addAll(issues(1, 10));
+    final long keysFileSize = Files.size(dataDir.resolve("keys.bin"));
+    index.addAll(issues(1, 10));
+    index.save();
+
+    assertThat(Files.size(dataDir.resolve("keys.bin")))
+        .isEqualTo(keysFileSize);
+  }
+
+  @Test
+  void survives_restart() {
+    final SyncedIssueIndex index = newIndex();
+    index.addAll(issues(1, 1000));
+    index.removeAll(ImmutableList.of(500L));
+    index.save();
+    // Not saved to the bitmap, only to the key log
+    index.addAll(issues(1001, 1010));
+
+    final SyncedIssueIndex restarted = newIndex();
+    assertThat(restarted.size())
+        .as("Saved IDs and IDs in the key log since then should be loaded")
+        .isEqualTo(1009);
+    assertThat(restarted.syncedIdsAfter(498, 3))
+        .containsExactly(499L, 501L, 502L);
+    assertThat(restarted.findKeys(ImmutableSet.of(1010L)))
+        .containsEntry(1010L, "WT-1010");
+  }
+
+  @Test
+  void partially_written_record_is_dropped() throws IOException {
+    final SyncedIssueIndex index = newIndex();
+    index.addAll(issues(1, 10));
+    Files.write(dataDir.resolve("keys.bin"), new byte[] {0, 0, 0}, StandardOpenOption.APPEND);
+
+    final SyncedIssueIndex restarted = newIndex();
+    restarted.addAll(issues(11, 12));
+
+    assertThat(newIndex().findKeys(ImmutableSet.of(10L, 11L, 12L)))
+        .as("Records written after the partial record should be readable")
+        .containsOnlyKeys(10L, 11L, 12L);
+  }
+
+  private SyncedIssueIndex newIndex() {
+    return new SyncedIssueIndex(dataDir.resolve("ids.bin"), dataDir.resolve("keys.bin"));
+  }
+
+  private static List<Issue> issues(final int firstId, final int lastId) {
+    return IntStream.rangeClosed(firstId, lastId)
+        .mapToObj(id -> randomIssue("WT-" + id).setId(id))
+        .collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2026 Practice Insight Pty Ltd. All Rights Reserved.
+ */
+
+package io.wisetime.connector.jira;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+import com.google.common.collect.ImmutableList;
+import io.wisetime.connector.api_client.ApiClient;
+import io.wisetime.generated.connect.DeleteTagRequest;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class TagDeletionQueueTest {
+
+  // Long enough that tags are only deleted when a test asks for it
+  private static final Duration NO_BACKGROUND_DELETION = Duration.ofHours(1);
+
+  @TempDir
+  Path dataDir;
+
+  private final ApiClient apiClient = mock(ApiClient.class);
+
+  @Test
+  void deduplicates_tag_names() throws IOException {
+    final TagDeletionQueue queue = new TagDeletionQueue(apiClient, Optional.empty(), NO_BACKGROUND_DELETION,
+        NO_BACKGROUND_DELETION);
+    queue.addAll(ImmutableList.of("WT-1", "WT-2"));
+    queue.addAll(ImmutableList.of("WT-2", "WT-1"));
+
+    assertThat(queue.deletePending())
+        .isTrue();
+    verify(apiClient, times(1)).tagDelete(new DeleteTagRequest().name("WT-1"));
+    verify(apiClient, times(1)).tagDelete(new DeleteTagRequest().name("WT-2"));
+    assertThat(queue.size())
+        .isZero();
+    queue.shutdown();
+  }
+
+  @Test
+  void pending_deletions_survive_restart() throws IOException {
+    final Path file = dataDir.resolve("pending-tag-deletions.bin");
+    doThrow(new IOException("Expected by test")).when(apiClient).tagDelete(new DeleteTagRequest().name("WT-2"));
+    final TagDeletionQueue queue = new TagDeletionQueue(apiClient, Optional.of(file), NO_BACKGROUND_DELETION,
+        NO_BACKGROUND_DELETION);
+    queue.addAll(ImmutableList.of("WT-1", "WT-2", "WT-3"));
+
+    assertThat(queue.deletePending())
+        .isFalse();
+    verify(apiClient, times(1).description("A failed tag shouldn't block the tags after it"))
+        .tagDelete(new DeleteTagRequest().name("WT-3"));
+    assertThat(queue.size())
+        .isEqualTo(1);
+    queue.shutdown();
+
+    final TagDeletionQueue restarted = new TagDeletionQueue(apiClient, Optional.of(file), NO_BACKGROUND_DELETION,
+        NO_BACKGROUND_DELETION);
+    assertThat(restarted.size())
+        .as("Tags that weren't deleted should be loaded again")
+        .isEqualTo(1);
+    restarted.shutdown();
+  }
+
+  @Test
+  void stops_when_deletions_keep_failing() throws IOException {
+    doThrow(new IOException("Expected by test")).when(apiClient).tagDelete(any());
+    final TagDeletionQueue queue = new TagDeletionQueue(apiClient, Optional.empty(), NO_BACKGROUND_DELETION,
+        NO_BACKGROUND_DELETION);
+    queue.addAll(ImmutableList.of("WT-1", "WT-2", "WT-3", "WT-4"));
+
+    assertThat(queue.deletePending())
+        .isFalse();
+    verify(apiClient, never().description("Deletion should stop once the API looks unavailable"))
+        .tagDelete(new DeleteTagRequest().name("WT-4"));
+
+    for (int i = 0; i < 10; i++) {
+      queue.deletePending();
+    }
+    assertThat(queue.size())
+        .as("Tags shouldn't be dropped while no deletion succeeds")
+        .isEqualTo(4);
+    queue.shutdown();
+  }
+
+  @Test
+  void drops_tag_after_permanent_failure() throws IOException {
+    doThrow(new IllegalArgumentException("Expected by test"))
+        .when(apiClient).tagDelete(new DeleteTagRequest().name("WT-1"));
+    final TagDeletionQueue queue = new TagDeletionQueue(apiClient, Optional.empty(), NO_BACKGROUND_DELETION,
+        NO_BACKGROUND_DELETION);
+    queue.addAll(ImmutableList.of("WT-1", "WT-2"));
+
+    assertThat(queue.deletePending())
+        .isTrue();
+    verify(apiClient, times(1)).tagDelete(new DeleteTagRequest().name("WT-2"));
+    assertThat(queue.size())
+        .isZero();
+    queue.shutdown();
+  }
+
+  @Test
+  void drops_tag_that_keeps_failing_while_others_are_deleted() throws IOException {
+    doThrow(new IOException("Expected by test")).when(apiClient).tagDelete(new DeleteTagRequest().name("WT-1"));
+    final TagDeletionQueue queue = new TagDeletionQueue(apiClient, Optional.empty(), NO_BACKGROUND_DELETION,
+        NO_BACKGROUND_DELETION);
+
+    for (int i = 0; i < 4; i++) {
+      queue.addAll(ImmutableList.of("WT-1", "WT-" + (i + 2)));
+      assertThat(queue.deletePending())
+          .isFalse();
+      assertThat(queue.size())
+          .isEqualTo(1);
+    }
+    queue.addAll(ImmutableList.of("WT-6"));
+    assertThat(queue.deletePending())
+        .as("The tag should be dropped on its fifth failure")
+        .isTrue();
+    assertThat(queue.size())
+        .isZero();
+    queue.shutdown();
+  }
+
+  @Test
+  void retries_in_background() throws IOException {
+    doThrow(new IOException("Expected by test"))
+        .doNothing()
+        .when(apiClient).tagDelete(any());
+    final TagDeletionQueue queue = new TagDeletionQueue(apiClient, Optional.empty(), Duration.ofMillis(10),
+        Duration.ofMillis(100));
+    queue.addAll(ImmutableList.of("WT-1"));
+
+    verify(apiClient, timeout(5000).times(2)).tagDelete(new DeleteTagRequest().name("WT-1"));
+    queue.shutdown();
+  }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2026 Practice Insight Pty Ltd. All Rights Reserved.
+ */
+
+package io.wisetime.connector.jira;
+
+import static io.wisetime.connector.jira.UserDirectory.DirectoryUser;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+class UserDirectoryTest {
+
+  private final List<DirectoryUser> users = new ArrayList<>();
+  private final List<Instant> refreshes = new ArrayList<>();
+  private final AtomicInteger directLookups = new AtomicInteger();
+
+  @Test
+  void lookups_served_from_memory() {
+    users.add(user(1, "Alice", "alice@example.com", Instant.parse("2026-01-01T00:00:00Z")));
+    final UserDirectory directory = directory(Duration.ofHours(1));
+
+    assertThat(directory.userExists("ALICE"))
+        .isTrue();
+    assertThat(directory.findUsernameByEmail("Alice@Example.com"))
+        .contains("Alice");
+    assertThat(directLookups)
+        .as("Known users should not be looked up in the database")
+        .hasValue(0);
+
+    assertThat(directory.userExists("bob"))
+        .isFalse();
+    assertThat(directLookups)
+        .hasValue(1);
+  }
+
+  @Test
+  void refreshes_users_updated_since_last_refresh() {
+    users.add(user(1, "Alice", "alice@example.com", Instant.parse("2026-01-01T00:00:00Z")));
+    final UserDirectory directory = directory(Duration.ZERO);
+    assertThat(directory.findUsernameByEmail("alice@example.com"))
+        .contains("Alice");
+
+    // Alice was renamed
+    users.set(0, user(1, "Alicia", "alicia@example.com", Instant.parse("2026-02-01T00:00:00Z")));
+    assertThat(directory.findUsernameByEmail("alicia@example.com"))
+        .contains("Alicia");
+    assertThat(refreshes)
+        .as("Only users updated since the latest update seen should be read")
+        .containsExactly(null, Instant.parse("2026-01-01T00:00:00Z"));
+    assertThat(directory.userExists("alice"))
+        .as("The old user name should be forgotten")
+        .isFalse();
+  }
+
+  private UserDirectory directory(final Duration refreshInterval) {
+    return new UserDirectory(
+        (updatedSince, consumer) -> {
+          refreshes.add(updatedSince);
+          users.stream()
+              .filter(user -> updatedSince == null || !user.getUpdated().isBefore(updatedSince))
+              .forEach(consumer);
+        },
+        nameOrEmail -> {
+          directLookups.incrementAndGet();
+          return users.stream()
+              .filter(user -> nameOrEmail.equals(user.getLowerUserName())
+                  || nameOrEmail.equals(user.getLowerEmailAddress()))
+              .collect(Collectors.toList());
+        },
+        refreshInterval,
+        Duration.ofDays(1)
+    );
+  }
+
+  private static DirectoryUser user(final long id, final String userName, final String email, final Instant updated) {
+    return new DirectoryUser()
+        .setId(id)
+        .setUserName(userName)
+        .setLowerUserName(userName.toLowerCase())
+        .setLowerEmailAddress(email)
+        .setActive(true)
+        .setUpdated(updated);
+  }
+}